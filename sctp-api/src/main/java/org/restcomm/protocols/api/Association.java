@@ -22,7 +22,10 @@ package org.restcomm.protocols.api;
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
 
+import java.util.Collection;
+
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.concurrent.Future;
 
 
 
@@ -144,13 +147,110 @@ public interface Association {
 	public String[] getExtraHostAddresses();
 
 	/**
-	 * Send the {@link PayloadData} to the peer
+	 * Send the {@link PayloadData} to the peer. If the association is down or
+	 * the data is rejected by the REJECT congestion policy an Exception is
+	 * thrown and the payload buffer is not released, it stays owned by the
+	 * caller. In all the other cases the buffer is owned by the association,
+	 * it is released if the data is dropped by the DROP congestion policy or
+	 * the stream number is not valid
 	 * 
 	 * @param payloadData
 	 * @throws Exception
 	 */
 	public void send(PayloadData payloadData) throws Exception;
 
+	/**
+	 * Send the {@link PayloadData} to the peer asynchronously. The returned
+	 * future is completed when the data is written to the socket. This method
+	 * never throws, a failure is reported by the future failed with
+	 * {@link SendFailedException}. The owner of the payload buffer on a
+	 * failure:
+	 * <ul>
+	 * <li>association down or congested with the REJECT policy: the future is
+	 * already failed and the buffer is not released, it stays owned by the
+	 * caller</li>
+	 * <li>data dropped by the DROP policy or stream number not valid: the
+	 * future is already failed and the buffer is released</li>
+	 * <li>write to the socket failed: the buffer is released by the
+	 * channel</li>
+	 * </ul>
+	 * 
+	 * @param payloadData
+	 * @return
+	 */
+	public Future<Void> sendAsync(PayloadData payloadData);
+
+	/**
+	 * Send the collection of {@link PayloadData} to the peer. All the messages
+	 * are written into the underlying channel and flushed once at the end of
+	 * the batch
+	 * 
+	 * @param payloadDatas
+	 * @throws Exception
+	 */
+	public void send(Collection<PayloadData> payloadDatas) throws Exception;
+
+	/**
+	 * Write the {@link PayloadData} into the underlying channel without
+	 * flushing it. Written messages are passed to the socket only after
+	 * {@link #flush()} is invoked
+	 * 
+	 * @param payloadData
+	 * @throws Exception
+	 */
+	public void write(PayloadData payloadData) throws Exception;
+
+	/**
+	 * Flush all the messages that were written by {@link #write(PayloadData)}
+	 * to the peer
+	 * 
+	 * @throws Exception
+	 */
+	public void flush() throws Exception;
+
+	/**
+	 * Returns the current congestion level of this association: 0 (no
+	 * congestion) to 3 (maximum congestion). The level is calculated from the
+	 * amount of bytes queued for sending and the congestion watermarks
+	 * configured in {@link Management}
+	 * 
+	 * @return
+	 */
+	public int getCongestionLevel();
+
+	/**
+	 * Returns the {@link StreamSelector} that chooses the SCTP stream for the
+	 * sent data or null if the stream number of PayloadData is used
+	 * 
+	 * @return
+	 */
+	public StreamSelector getStreamSelector();
+
+	/**
+	 * Set the {@link StreamSelector} that chooses the SCTP stream for the sent
+	 * data, null means that the stream number of PayloadData is used. Has no
+	 * effect for TCP associations.
+	 * 
+	 * @param streamSelector
+	 */
+	public void setStreamSelector(StreamSelector streamSelector);
+
+	/**
+	 * Returns the {@link TcpFraming} that splits the received data into
+	 * messages or null if the data is passed as it is read from the socket
+	 * 
+	 * @return
+	 */
+	public TcpFraming getTcpFraming();
+
+	/**
+	 * Set the {@link TcpFraming} that splits the received data into messages.
+	 * Has no effect for SCTP associations.
+	 * 
+	 * @param tcpFraming
+	 */
+	public void setTcpFraming(TcpFraming tcpFraming);
+
     /**
      * Return ByteBufAllocator if the underlying Channel is netty or null if not
      *
@@ -187,38 +287,124 @@ public interface Association {
 	 */
 	public Integer getCommunicationsUp();
 
+	/**
+	 * Same as getCommunicationsUp() without boxing the value
+	 */
+	public int getCommunicationsUpValue();
+
 	/**
 	 * Returns the number of times communication was down for this association starting from association creation
 	 */
 	public Integer getCommunicationsDown();
 
+	/**
+	 * Same as getCommunicationsDown() without boxing the value
+	 */
+	public int getCommunicationsDownValue();
+
 	/**
 	 * Returns the number of times communication was lost for this association starting from association creation
 	 */
 	public Integer getCommunicationsLost();
 
+	/**
+	 * Same as getCommunicationsLost() without boxing the value
+	 */
+	public int getCommunicationsLostValue();
+
 	/**
 	 * Returns the number of times communication was restarted for this association starting from association creation
 	 */
 	public Integer getCommunicationsRestart();
 
+	/**
+	 * Same as getCommunicationsRestart() without boxing the value
+	 */
+	public int getCommunicationsRestartValue();
+
 	/**
 	 * Returns the number of packets that has been sent for this association starting from association creation
 	 */
 	public Long getPacketsSent();
 
+	/**
+	 * Same as getPacketsSent() without boxing the value
+	 */
+	public long getPacketsSentValue();
+
 	/**
 	 * Returns the number of packets that has been received for this association starting from association creation
 	 */
 	public Long getPacketsReceived();
 
+	/**
+	 * Same as getPacketsReceived() without boxing the value
+	 */
+	public long getPacketsReceivedValue();
+
 	/**
 	 * Returns the number of bytes that has been sent for this association starting from association creation
 	 */
 	public Long getBytesSent();
 
+	/**
+	 * Same as getBytesSent() without boxing the value
+	 */
+	public long getBytesSentValue();
+
 	/**
 	 * Returns the number of bytes that has been received for this association starting from association creation
 	 */
 	public Long getBytesReceived();
+
+	/**
+	 * Same as getBytesReceived() without boxing the value
+	 */
+	public long getBytesReceivedValue();
+
+	/**
+	 * Returns the number of packets that has been dropped because of congestion for this association starting from association creation
+	 */
+	public Long getPacketsDropped();
+
+	/**
+	 * Same as getPacketsDropped() without boxing the value
+	 */
+	public long getPacketsDroppedValue();
+
+	/**
+	 * Returns the number of packets sent by sendAsync() which write to the socket has completed for this association starting from association creation
+	 */
+	public Long getAsyncSendCompletions();
+
+	/**
+	 * Same as getAsyncSendCompletions() without boxing the value
+	 */
+	public long getAsyncSendCompletionsValue();
+
+	/**
+	 * Returns the total time (in nanoseconds) from sendAsync() invoking till the write completion of all completed packets for this association starting from association creation
+	 */
+	public Long getAsyncSendCompletionTime();
+
+	/**
+	 * Same as getAsyncSendCompletionTime() without boxing the value
+	 */
+	public long getAsyncSendCompletionTimeValue();
+
+	/**
+	 * Returns the histogram of the time in nanoseconds from sending a message till its write to the socket has completed
+	 * for this association
+	 *
+	 * @return the histogram or null if the per association latency histograms are disabled in the management
+	 */
+	public LatencyHistogram getSendLatencyHistogram();
+
+	/**
+	 * Returns the histogram of the time in nanoseconds from reading a message from the channel till the listener has
+	 * processed it for this association
+	 *
+	 * @return the histogram or null if the per association latency histograms are disabled in the management
+	 */
+	public LatencyHistogram getReceiveLatencyHistogram();
 }
\ No newline at end of file
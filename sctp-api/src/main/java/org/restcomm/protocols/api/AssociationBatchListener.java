@@ -0,0 +1,54 @@
+package org.restcomm.protocols.api;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.List;
+
+/**
+ * <p>
+ * The extension of {@link AssociationListener} that receives the payloads in
+ * batches. All the payloads that are read from the underlying socket in one
+ * read cycle are collected and delivered with one
+ * {@link #onPayloads(Association, List)} call when the read cycle completes,
+ * instead of calling {@link AssociationListener#onPayload(Association, PayloadData)}
+ * for each of them.
+ * </p>
+ * <p>
+ * The list is owned by the library and must not be kept after the call
+ * returns, the payloads themselves (and their buffers) are passed to the
+ * listener in the same way as for onPayload().
+ * </p>
+ * 
+ * @author yulianoifa
+ * 
+ */
+public interface AssociationBatchListener extends AssociationListener {
+
+	/**
+	 * Invoked when the read cycle of the underlying socket completes with all
+	 * the payloads received in this cycle, in the order of their receiving
+	 * 
+	 * @param association
+	 * @param payloadDatas
+	 */
+	public void onPayloads(Association association, List<PayloadData> payloadDatas);
+}
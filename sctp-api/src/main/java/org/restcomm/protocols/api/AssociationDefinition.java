@@ -0,0 +1,136 @@
+package org.restcomm.protocols.api;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+/**
+ * The parameters of one {@link Association} for the bulk provisioning with
+ * {@link Management#addAssociations(java.util.List)}. A client definition
+ * carries the same parameters as
+ * {@link Management#addAssociation(String, int, String, int, String, IpChannelType, String[])}
+ * and a server definition the same as
+ * {@link Management#addServerAssociation(String, int, String, String, IpChannelType)}.
+ * 
+ * @author yulianoifa
+ * 
+ */
+public class AssociationDefinition {
+	private final AssociationType type;
+	private final String hostAddress;
+	private final int hostPort;
+	private final String peerAddress;
+	private final int peerPort;
+	private final String serverName;
+	private final String assocName;
+	private final IpChannelType ipChannelType;
+	private final String[] extraHostAddresses;
+
+	private AssociationDefinition(AssociationType type, String hostAddress, int hostPort, String peerAddress,
+			int peerPort, String serverName, String assocName, IpChannelType ipChannelType,
+			String[] extraHostAddresses) {
+		this.type = type;
+		this.hostAddress = hostAddress;
+		this.hostPort = hostPort;
+		this.peerAddress = peerAddress;
+		this.peerPort = peerPort;
+		this.serverName = serverName;
+		this.assocName = assocName;
+		this.ipChannelType = ipChannelType;
+		this.extraHostAddresses = extraHostAddresses;
+	}
+
+	/**
+	 * Creates the definition of a client {@link Association}
+	 * 
+	 * @param hostAddress
+	 * @param hostPort
+	 * @param peerAddress
+	 * @param peerPort
+	 * @param assocName
+	 * @param ipChannelType
+	 * @param extraHostAddresses
+	 * @return
+	 */
+	public static AssociationDefinition client(String hostAddress, int hostPort, String peerAddress, int peerPort,
+			String assocName, IpChannelType ipChannelType, String[] extraHostAddresses) {
+		return new AssociationDefinition(AssociationType.CLIENT, hostAddress, hostPort, peerAddress, peerPort, null,
+				assocName, ipChannelType, extraHostAddresses);
+	}
+
+	/**
+	 * Creates the definition of a server {@link Association}
+	 * 
+	 * @param peerAddress
+	 * @param peerPort
+	 * @param serverName
+	 * @param assocName
+	 * @param ipChannelType
+	 * @return
+	 */
+	public static AssociationDefinition server(String peerAddress, int peerPort, String serverName, String assocName,
+			IpChannelType ipChannelType) {
+		return new AssociationDefinition(AssociationType.SERVER, null, 0, peerAddress, peerPort, serverName,
+				assocName, ipChannelType, null);
+	}
+
+	public AssociationType getType() {
+		return type;
+	}
+
+	public String getHostAddress() {
+		return hostAddress;
+	}
+
+	public int getHostPort() {
+		return hostPort;
+	}
+
+	public String getPeerAddress() {
+		return peerAddress;
+	}
+
+	public int getPeerPort() {
+		return peerPort;
+	}
+
+	public String getServerName() {
+		return serverName;
+	}
+
+	public String getAssocName() {
+		return assocName;
+	}
+
+	public IpChannelType getIpChannelType() {
+		return ipChannelType;
+	}
+
+	public String[] getExtraHostAddresses() {
+		return extraHostAddresses;
+	}
+
+	@Override
+	public String toString() {
+		return "AssociationDefinition [type=" + type + ", name=" + assocName + ", hostAddress=" + hostAddress
+				+ ", hostPort=" + hostPort + ", peerAddress=" + peerAddress + ", peerPort=" + peerPort
+				+ ", serverName=" + serverName + ", ipChannelType=" + ipChannelType + "]";
+	}
+}
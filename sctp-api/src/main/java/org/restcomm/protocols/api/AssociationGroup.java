@@ -0,0 +1,120 @@
+package org.restcomm.protocols.api;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of {@link Association}s towards the same peer that are used as one
+ * link set. The data sent to the group is load shared between the members
+ * that are connected and whose congestion level is below the congestion
+ * exclusion level. A member leaves the rotation as soon as it goes down or
+ * becomes congested and returns to it when it is up again.
+ * 
+ * @author yulianoifa
+ * 
+ */
+public interface AssociationGroup {
+
+	/**
+	 * Returns the name of this group
+	 * 
+	 * @return
+	 */
+	public String getName();
+
+	/**
+	 * Adds the {@link Association} to the group. The weight (1..100) is the
+	 * share of data that the association gets from weighted round robin and
+	 * key hashing relative to the other members.
+	 * 
+	 * @param assocName
+	 * @param weight
+	 * @throws Exception
+	 */
+	public void addAssociation(String assocName, int weight) throws Exception;
+
+	/**
+	 * Removes the {@link Association} from the group
+	 * 
+	 * @param assocName
+	 * @throws Exception
+	 */
+	public void removeAssociation(String assocName) throws Exception;
+
+	/**
+	 * Returns the names of member associations with their weights
+	 * 
+	 * @return
+	 */
+	public Map<String, Integer> getAssociationWeights();
+
+	/**
+	 * Returns the member associations that are in rotation now
+	 * 
+	 * @return
+	 */
+	public List<Association> getActiveAssociations();
+
+	/**
+	 * Returns the congestion level (1..3) starting from which a member is
+	 * excluded from the rotation. Default value is 3.
+	 * 
+	 * @return
+	 */
+	public int getCongestionExclusionLevel();
+
+	/**
+	 * Set the congestion level (1..3) starting from which a member is
+	 * excluded from the rotation
+	 * 
+	 * @param congestionExclusionLevel
+	 * @throws Exception
+	 */
+	public void setCongestionExclusionLevel(int congestionExclusionLevel) throws Exception;
+
+	/**
+	 * Sends the {@link PayloadData} via the next active member selected by
+	 * weighted round robin. If the member fails to send, the data is sent via
+	 * the next member. Throws {@link SendFailedException} if there is no
+	 * active member, the payload buffer is not released in this case.
+	 * 
+	 * @param payloadData
+	 * @throws Exception
+	 */
+	public void send(PayloadData payloadData) throws Exception;
+
+	/**
+	 * Sends the {@link PayloadData} via the active member selected by the
+	 * hash of the key, so the data with the same key is sent via the same
+	 * member while the set of active members does not change. If the member
+	 * fails to send, the data is sent via the next member. Throws
+	 * {@link SendFailedException} if there is no active member, the payload
+	 * buffer is not released in this case.
+	 * 
+	 * @param payloadData
+	 * @param key
+	 * @throws Exception
+	 */
+	public void send(PayloadData payloadData, int key) throws Exception;
+}
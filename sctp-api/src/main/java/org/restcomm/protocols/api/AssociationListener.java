@@ -104,4 +104,17 @@ public interface AssociationListener {
 	 */
 	public void inValidStreamId(PayloadData payloadData);
 
+	/**
+	 * Invoked when the congestion level of the {@link Association} is
+	 * changed. The level is 0 (no congestion) to 3 (maximum congestion). This
+	 * callback may be invoked either on the thread that sends data or on the
+	 * IO thread, do not delay the process here.
+	 * 
+	 * @param association
+	 * @param oldLevel
+	 * @param newLevel
+	 */
+	public default void onCongestionLevelChanged(Association association, int oldLevel, int newLevel) {
+	}
+
 }
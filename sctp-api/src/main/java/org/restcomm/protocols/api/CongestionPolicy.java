@@ -0,0 +1,44 @@
+package org.restcomm.protocols.api;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+/**
+ * What an {@link Association} does with outgoing {@link PayloadData} when its
+ * congestion level reaches the configured policy level
+ * 
+ * @author yulianoifa
+ * 
+ */
+public enum CongestionPolicy {
+	/**
+	 * Data is always queued for sending
+	 */
+	NONE,
+	/**
+	 * Association.send() throws an Exception
+	 */
+	REJECT,
+	/**
+	 * Data is silently dropped and counted as dropped
+	 */
+	DROP;
+}
@@ -0,0 +1,229 @@
+package org.restcomm.protocols.api;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in nanoseconds with a fixed memory footprint. The values are counted in log-linear buckets like
+ * in HdrHistogram: each power of two range is split into 32 sub buckets, so a reported value is within 1/32 (about
+ * 3%) of the recorded one, with the resolution of 1024 ns. Values up to 2^34 ns (about 17 seconds) are tracked, the
+ * larger values are counted in the highest bucket while the maximum is kept exact.
+ * 
+ * Recording does not create objects and may be done by many threads concurrently. One histogram takes about 5 KB.
+ * {@link #snapshot(boolean)} with reset returns the values recorded since the previous reset, so it can be used for
+ * interval reporting, each value is counted in exactly one interval.
+ * 
+ * @author yulianoifa
+ * 
+ */
+public final class LatencyHistogram {
+
+    private static final int UNIT_MAGNITUDE = 10;
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 5;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final long SUB_BUCKET_MASK = ((long) (SUB_BUCKET_HALF_COUNT << 1) - 1) << UNIT_MAGNITUDE;
+    private static final int LEADING_ZERO_COUNT_BASE = 64 - UNIT_MAGNITUDE - SUB_BUCKET_HALF_COUNT_MAGNITUDE - 1;
+
+    /**
+     * The highest value that is counted in its own bucket, 2^34 - 1 ns
+     */
+    public static final long HIGHEST_TRACKABLE_VALUE = (1L << 34) - 1;
+
+    private static final int COUNTS_LENGTH = countsIndex(HIGHEST_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(COUNTS_LENGTH);
+    private final AtomicLong maxValue = new AtomicLong(0);
+
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Records one value
+     *
+     * @param value the latency in nanoseconds, negative values are recorded as 0
+     */
+    public void recordValue(long value) {
+        this.recordValues(value, 1);
+    }
+
+    /**
+     * Records the same value count times, for example the latency of a batch of messages
+     *
+     * @param value the latency in nanoseconds, negative values are recorded as 0
+     * @param count
+     */
+    public void recordValues(long value, long count) {
+        if (count <= 0)
+            return;
+        if (value < 0)
+            value = 0;
+
+        counts.addAndGet(countsIndex(Math.min(value, HIGHEST_TRACKABLE_VALUE)), count);
+        long max;
+        while (value > (max = maxValue.get())) {
+            if (maxValue.compareAndSet(max, value))
+                break;
+        }
+    }
+
+    /**
+     * Returns the count of the recorded values
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++)
+            total += counts.get(i);
+        return total;
+    }
+
+    /**
+     * Returns the highest recorded value in nanoseconds, 0 if nothing is recorded
+     */
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values in nanoseconds, 0 if nothing is recorded
+     */
+    public double getMean() {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            long count = counts.get(i);
+            if (count == 0)
+                continue;
+
+            total += count;
+            sum += (double) count * (valueFromIndex(i) + (bucketWidth(i) >> 1));
+        }
+        return total == 0 ? 0 : sum / total;
+    }
+
+    /**
+     * Returns the value in nanoseconds that the given percentage of the recorded values are below or equal to. The
+     * value is the upper end of its bucket, but never higher than the maximum
+     *
+     * @param percentile from 0 to 100
+     * @return the value or 0 if nothing is recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = this.getTotalCount();
+        if (total == 0)
+            return 0;
+
+        double requested = Math.min(Math.max(percentile, 0), 100);
+        long countAtPercentile = Math.max(1, (long) (requested / 100 * total + 0.5));
+        long max = maxValue.get();
+        long cumulative = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= countAtPercentile)
+                return Math.min(valueFromIndex(i) + bucketWidth(i) - 1, max);
+        }
+        // the values recorded while iterating
+        return max;
+    }
+
+    /**
+     * Returns the median in nanoseconds
+     */
+    public long getP50() {
+        return this.getValueAtPercentile(50);
+    }
+
+    /**
+     * Returns the 99th percentile in nanoseconds
+     */
+    public long getP99() {
+        return this.getValueAtPercentile(99);
+    }
+
+    /**
+     * Returns the 99.9th percentile in nanoseconds
+     */
+    public long getP999() {
+        return this.getValueAtPercentile(99.9);
+    }
+
+    /**
+     * Returns a copy of the recorded values.
+     *
+     * @param reset if true the copied values are removed from this histogram, the values recorded concurrently are kept
+     *            either in the copy or in this histogram
+     * @return the copy, which is not updated anymore
+     */
+    public LatencyHistogram snapshot(boolean reset) {
+        LatencyHistogram snapshot = new LatencyHistogram();
+        snapshot.maxValue.set(reset ? maxValue.getAndSet(0) : maxValue.get());
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            long count = reset ? counts.getAndSet(i, 0) : counts.get(i);
+            if (count != 0)
+                snapshot.counts.set(i, count);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Removes all the recorded values
+     */
+    public void reset() {
+        maxValue.set(0);
+        for (int i = 0; i < COUNTS_LENGTH; i++)
+            counts.set(i, 0);
+    }
+
+    private static int countsIndex(long value) {
+        int bucketIndex = LEADING_ZERO_COUNT_BASE - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK);
+        int subBucketIndex = (int) (value >>> (bucketIndex + UNIT_MAGNITUDE));
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+    }
+
+    private static int bucketIndex(int index) {
+        return Math.max((index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1, 0);
+    }
+
+    private static long valueFromIndex(int index) {
+        int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        return (long) subBucketIndex << (bucketIndex + UNIT_MAGNITUDE);
+    }
+
+    private static long bucketWidth(int index) {
+        return 1L << (bucketIndex(index) + UNIT_MAGNITUDE);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("LatencyHistogram [count=").append(this.getTotalCount()).append(", p50=").append(this.getP50())
+                .append(", p99=").append(this.getP99()).append(", p999=").append(this.getP999()).append(", max=")
+                .append(this.getMaxValue()).append("]");
+        return sb.toString();
+    }
+}
@@ -23,8 +23,11 @@ package org.restcomm.protocols.api;
  */
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * <p>
@@ -75,6 +78,26 @@ public interface Management {
 	 */
 	public void setServerListener(ServerListener serverListener);
 
+	/**
+	 * Get the executor that invokes {@link ServerListener} for the incoming
+	 * anonymous connections. Default value is null, the listener is invoked by
+	 * the I/O thread that accepted the connection.
+	 * 
+	 * @return
+	 */
+	public Executor getServerListenerExecutor();
+
+	/**
+	 * Set the executor that invokes {@link ServerListener} for the incoming
+	 * anonymous connections, so a slow decision does not block the I/O
+	 * threads. The reading from the connection is postponed till the
+	 * association is started by the listener. null to invoke the listener by
+	 * the I/O thread.
+	 * 
+	 * @param serverListenerExecutor
+	 */
+	public void setServerListenerExecutor(Executor serverListenerExecutor);
+
 	/**
 	 * Adding ManagementEventListener.
 	 * This listener is notified when adding/removing servers and associations 
@@ -218,6 +241,29 @@ public interface Management {
 	 */
 	public void stopServer(String serverName) throws Exception;
 
+	/**
+	 * Start the existing Servers in parallel
+	 * 
+	 * @param serverNames
+	 *            names of the Servers to be started
+	 * @return the future that is completed when all the Servers are started.
+	 *         It is completed exceptionally if any of the Servers failed to
+	 *         start, the rest of them are started anyway
+	 */
+	public CompletableFuture<Void> startServers(Collection<String> serverNames);
+
+	/**
+	 * Stop the Servers in parallel
+	 * 
+	 * @param serverNames
+	 *            names of the Servers to be stopped
+	 * @return the future that is completed when all the Servers are stopped
+	 *         and their channels are closed. It is completed exceptionally if
+	 *         any of the Servers failed to stop, the rest of them are stopped
+	 *         anyway
+	 */
+	public CompletableFuture<Void> stopServers(Collection<String> serverNames);
+
 	/**
 	 * Get the list of Servers configured
 	 * 
@@ -299,6 +345,18 @@ public interface Management {
 	public Association addAssociation(String hostAddress, int hostPort, String peerAddress, int peerPort, String assocName, IpChannelType ipChannelType,
 			String[] extraHostAddresses) throws Exception;
 
+	/**
+	 * Add the client and server Associations in one pass. All the definitions
+	 * are validated against the existing Associations and each other before
+	 * any of them is added, so either all Associations are added or none and
+	 * the Exception describes the first invalid definition.
+	 * 
+	 * @param definitions
+	 * @return the added Associations in the order of definitions
+	 * @throws Exception
+	 */
+	public List<Association> addAssociations(List<AssociationDefinition> definitions) throws Exception;
+
 	/**
 	 * Remove existing Association. Association should be stopped before
 	 * removing
@@ -325,6 +383,43 @@ public interface Management {
 	 */
 	public Map<String, Association> getAssociations();
 
+	/**
+	 * Add a new {@link AssociationGroup} that load shares the data between
+	 * its member associations
+	 * 
+	 * @param groupName
+	 *            unique name of the group
+	 * @return
+	 * @throws Exception
+	 */
+	public AssociationGroup addAssociationGroup(String groupName) throws Exception;
+
+	/**
+	 * Remove the {@link AssociationGroup}, member associations are not
+	 * affected
+	 * 
+	 * @param groupName
+	 * @throws Exception
+	 */
+	public void removeAssociationGroup(String groupName) throws Exception;
+
+	/**
+	 * Get {@link AssociationGroup} for passed name
+	 * 
+	 * @param groupName
+	 * @return
+	 * @throws Exception
+	 */
+	public AssociationGroup getAssociationGroup(String groupName) throws Exception;
+
+	/**
+	 * Get configured AssociationGroup map with name as key and
+	 * AssociationGroup instance as value
+	 * 
+	 * @return
+	 */
+	public Map<String, AssociationGroup> getAssociationGroups();
+
 	/**
 	 * Start the existing Association
 	 * 
@@ -341,6 +436,28 @@ public interface Management {
 	 */
 	public void stopAssociation(String assocName) throws Exception;
 
+	/**
+	 * Start the existing Associations in parallel
+	 * 
+	 * @param assocNames
+	 * @return the future that is completed when all the Associations are
+	 *         started. It is completed exceptionally if any of the
+	 *         Associations failed to start, the rest of them are started
+	 *         anyway
+	 */
+	public CompletableFuture<Void> startAssociations(Collection<String> assocNames);
+
+	/**
+	 * Stop the existing Associations in parallel
+	 * 
+	 * @param assocNames
+	 * @return the future that is completed when all the Associations are
+	 *         stopped and their channels are closed. It is completed
+	 *         exceptionally if any of the Associations failed to stop, the
+	 *         rest of them are stopped anyway
+	 */
+	public CompletableFuture<Void> stopAssociations(Collection<String> assocNames);
+
 	/**
 	 * Get connection delay. If the client side {@link Association} dies due to
 	 * network failure or any other reason, it should attempt to reconnect after
@@ -356,6 +473,168 @@ public interface Management {
 	 * @param connectDelay
 	 */
 	public void setConnectDelay(int connectDelay) throws Exception;
+
+	/**
+	 * Get the timeout (in milliseconds) of a client side {@link Association}
+	 * connection attempt. If the connection is not established within this
+	 * interval the attempt is cancelled and the next one is scheduled after
+	 * connectDelay interval. Default value is 10000.
+	 * 
+	 * @return
+	 */
+	public int getConnectTimeout();
+
+	/**
+	 * Set the timeout (in milliseconds) of a client side {@link Association}
+	 * connection attempt
+	 * 
+	 * @param connectTimeout
+	 */
+	public void setConnectTimeout(int connectTimeout) throws Exception;
+
+	/**
+	 * Get the multiplier of the reconnect delay. Each failed connection
+	 * attempt of a client side {@link Association} multiplies the delay before
+	 * the next attempt, starting from connectDelay and up to maxConnectDelay.
+	 * The delay is restarted when the Association is up. Default value is 1
+	 * (the delay is always connectDelay).
+	 * 
+	 * @return
+	 */
+	public double getConnectDelayMultiplier();
+
+	/**
+	 * Set the multiplier of the reconnect delay, must be not less than 1
+	 * 
+	 * @param connectDelayMultiplier
+	 */
+	public void setConnectDelayMultiplier(double connectDelayMultiplier) throws Exception;
+
+	/**
+	 * Get the maximum reconnect delay (in milliseconds) that the multiplied
+	 * delay is capped to. Default value is 60000.
+	 * 
+	 * @return
+	 */
+	public int getMaxConnectDelay();
+
+	/**
+	 * Set the maximum reconnect delay (in milliseconds)
+	 * 
+	 * @param maxConnectDelay
+	 */
+	public void setMaxConnectDelay(int maxConnectDelay) throws Exception;
+
+	/**
+	 * Get the jitter of the reconnect delay. The delay is reduced by a random
+	 * part of it up to this fraction, so the associations that failed together
+	 * do not reconnect at the same moment. Default value is 0 (no jitter).
+	 * 
+	 * @return
+	 */
+	public double getConnectDelayJitter();
+
+	/**
+	 * Set the jitter of the reconnect delay, from 0 to 1
+	 * 
+	 * @param connectDelayJitter
+	 */
+	public void setConnectDelayJitter(double connectDelayJitter) throws Exception;
+
+	/**
+	 * Get the maximum count of client side connection attempts per second for
+	 * all the associations of this management. The attempts above the rate are
+	 * postponed till their turn comes. Default value is 0 (no limit).
+	 * 
+	 * @return
+	 */
+	public int getMaxConnectRate();
+
+	/**
+	 * Set the maximum count of client side connection attempts per second, 0
+	 * disables the limit
+	 * 
+	 * @param maxConnectRate
+	 */
+	public void setMaxConnectRate(int maxConnectRate) throws Exception;
+
+	/**
+	 * Returns the count of the client side connection attempts that were
+	 * postponed because of the maxConnectRate limit
+	 * 
+	 * @return
+	 */
+	public long getThrottledConnectAttemptsCount();
+
+	/**
+	 * Get the tick duration (in milliseconds) of the timer that schedules the
+	 * association timers (reconnects and connect timeouts). The timers fire
+	 * with this precision. Default value is 10.
+	 * 
+	 * @return
+	 */
+	public int getTimerTickDuration();
+
+	/**
+	 * Set the tick duration (in milliseconds) of the association timers. The
+	 * new value is applied when the management is started.
+	 * 
+	 * @param timerTickDuration
+	 */
+	public void setTimerTickDuration(int timerTickDuration) throws Exception;
+
+	/**
+	 * Get the time (in milliseconds) a stopped {@link Association} waits for
+	 * the already sent messages to be written before its channel is closed.
+	 * The new messages are rejected as soon as the stop is requested. The
+	 * messages that are not written till this timeout are dropped. Default
+	 * value is 0 (the channel is closed at once).
+	 * 
+	 * @return
+	 */
+	public int getStopDrainTimeout();
+
+	/**
+	 * Set the time (in milliseconds) a stopped {@link Association} waits for
+	 * the already sent messages to be written, 0 closes the channel at once
+	 * 
+	 * @param stopDrainTimeout
+	 */
+	public void setStopDrainTimeout(int stopDrainTimeout) throws Exception;
+
+	/**
+	 * Returns the count of the messages that were written while the stopped
+	 * associations were drained, including the messages that are written at
+	 * once by the flush of a stopped association
+	 * 
+	 * @return
+	 */
+	public long getDrainedOnStopMessagesCount();
+
+	/**
+	 * Returns the count of the bytes that were written while the stopped
+	 * associations were drained, including the bytes that are written at
+	 * once by the flush of a stopped association
+	 * 
+	 * @return
+	 */
+	public long getDrainedOnStopBytesCount();
+
+	/**
+	 * Returns the count of the messages that were dropped because they were
+	 * not written till the stopDrainTimeout expired
+	 * 
+	 * @return
+	 */
+	public long getDroppedOnStopMessagesCount();
+
+	/**
+	 * Returns the count of the bytes that were dropped because they were not
+	 * written till the stopDrainTimeout expired
+	 * 
+	 * @return
+	 */
+	public long getDroppedOnStopBytesCount();
 	
     /**
      * SCTP option: Enables or disables message fragmentation.
@@ -523,6 +802,372 @@ public interface Management {
      */
     public void setBufferSize(int bufferSize) throws Exception;
 
+    /**
+     * Returns true if the flush consolidation is enabled. When enabled the flush requests that are issued for an
+     * association in the same event loop tick are consolidated into a single flush of the channel.
+     * Default value is false.
+     *
+     * @return
+     */
+    public boolean isFlushConsolidationEnabled();
+
+    /**
+     * Enables or disables the flush consolidation. The value is applied to the channels that are created
+     * after the change.
+     *
+     * @param flushConsolidationEnabled
+     */
+    public void setFlushConsolidationEnabled(boolean flushConsolidationEnabled);
+
+    /**
+     * Get the count of consolidated flush requests after which the flush is forced even if the flush consolidation is
+     * enabled. Each sent message requests one flush. Default value is 256.
+     *
+     * @return
+     */
+    public int getFlushConsolidationMaxPendingWrites();
+
+    /**
+     * Set the count of consolidated flush requests after which the flush is forced even if the flush consolidation is
+     * enabled.
+     *
+     * @param flushConsolidationMaxPendingWrites
+     */
+    public void setFlushConsolidationMaxPendingWrites(int flushConsolidationMaxPendingWrites) throws Exception;
+
+    /**
+     * Returns the number of flushes that were requested for the channels with the flush consolidation enabled
+     *
+     * @return
+     */
+    public long getFlushRequestsCount();
+
+    /**
+     * Returns the number of flushes that were saved by the flush consolidation (requested but not performed flushes)
+     *
+     * @return
+     */
+    public long getSavedFlushesCount();
+
+    /**
+     * Get the amount of queued for sending bytes below which an association leaves congestion. Congestion level N
+     * (1..3) is left when the queued amount goes below lowWatermark * N / 3. Default value is 32768.
+     *
+     * @return
+     */
+    public int getCongestionLowWatermark();
+
+    /**
+     * Get the amount of queued for sending bytes at which an association reaches the maximum congestion level 3.
+     * Congestion level N (1..3) is reached when the queued amount reaches highWatermark * N / 3. Default value is 65536.
+     *
+     * @return
+     */
+    public int getCongestionHighWatermark();
+
+    /**
+     * Set the congestion watermarks. The values are applied to the channels that are created after the change.
+     *
+     * @param lowWatermark
+     * @param highWatermark
+     * @throws Exception
+     *             if lowWatermark is less than 0 or highWatermark is less than lowWatermark
+     */
+    public void setCongestionWatermarks(int lowWatermark, int highWatermark) throws Exception;
+
+    /**
+     * Get the policy that is applied to sent data when an association congestion level reaches the congestion policy
+     * level. Default value is {@link CongestionPolicy#NONE}.
+     *
+     * @return
+     */
+    public CongestionPolicy getCongestionPolicy();
+
+    /**
+     * Set the policy that is applied to sent data when an association congestion level reaches the congestion policy
+     * level.
+     *
+     * @param congestionPolicy
+     */
+    public void setCongestionPolicy(CongestionPolicy congestionPolicy);
+
+    /**
+     * Get the congestion level (1..3) starting from which the congestion policy is applied. Default value is 3.
+     *
+     * @return
+     */
+    public int getCongestionPolicyLevel();
+
+    /**
+     * Set the congestion level (1..3) starting from which the congestion policy is applied.
+     *
+     * @param congestionPolicyLevel
+     * @throws Exception
+     */
+    public void setCongestionPolicyLevel(int congestionPolicyLevel) throws Exception;
+
+    /**
+     * Returns true if the messages that are sent by {@link Association#send(PayloadData)},
+     * {@link Association#send(java.util.Collection)} and {@link Association#write(PayloadData)} are put into a per
+     * association queue that is drained by the channel event loop with a single flush per drain, instead of submitting a
+     * write task into the event loop for each message. {@link Association#sendAsync(PayloadData)} always writes directly,
+     * so its messages are not ordered with the queued ones. Default value is false.
+     *
+     * @return
+     */
+    public boolean isSendQueueEnabled();
+
+    /**
+     * Enable or disable sending via the per association queue.
+     *
+     * @param sendQueueEnabled
+     */
+    public void setSendQueueEnabled(boolean sendQueueEnabled);
+
+    /**
+     * Get the count of threads that deliver the received data to {@link AssociationListener}s. 0 means that the data is
+     * delivered directly by the IO threads. Default value is 0.
+     *
+     * @return
+     */
+    public int getInboundDispatchThreads();
+
+    /**
+     * Set the count of threads that deliver the received data to {@link AssociationListener}s. The thread is chosen by
+     * the association and the stream number, so the data of one stream is delivered in order. 0 disables the inbound
+     * dispatching, this is allowed only while the management is stopped. When the count is changed while the
+     * management is started, the new threads start delivering after the old threads have delivered the data queued in
+     * them, so the order of each stream is kept.
+     *
+     * @param inboundDispatchThreads
+     * @throws Exception
+     */
+    public void setInboundDispatchThreads(int inboundDispatchThreads) throws Exception;
+
+    /**
+     * Get the maximum count of the received messages that wait for delivery in one inbound dispatch thread. Default value
+     * is 10000.
+     *
+     * @return
+     */
+    public int getInboundDispatchQueueSize();
+
+    /**
+     * Set the maximum count of the received messages that wait for delivery in one inbound dispatch thread, the messages
+     * that do not fit are dropped. Applied when the inbound dispatch threads are (re)created.
+     *
+     * @param inboundDispatchQueueSize
+     * @throws Exception
+     */
+    public void setInboundDispatchQueueSize(int inboundDispatchQueueSize) throws Exception;
+
+    /**
+     * Returns the count of received messages that wait for delivery in the inbound dispatch threads now
+     *
+     * @return
+     */
+    public int getInboundDispatchQueueDepth();
+
+    /**
+     * Returns the count of received messages delivered by the inbound dispatch threads
+     *
+     * @return
+     */
+    public long getInboundDispatchedCount();
+
+    /**
+     * Returns the total time (in nanoseconds) that the messages delivered by the inbound dispatch threads waited in the
+     * queues
+     *
+     * @return
+     */
+    public long getInboundDispatchWaitTime();
+
+    /**
+     * Returns the maximum time (in nanoseconds) that a message delivered by the inbound dispatch threads waited in the
+     * queue
+     *
+     * @return
+     */
+    public long getInboundDispatchMaxWaitTime();
+
+    /**
+     * Returns the count of received messages that were dropped because the inbound dispatch queue was full
+     *
+     * @return
+     */
+    public long getInboundDispatchRejectedCount();
+
+    /**
+     * Get the count of received messages of one association waiting for delivery in the inbound dispatch threads at
+     * which the reading from the association channel is suspended. Default value is 0 (inbound flow control is
+     * disabled).
+     *
+     * @return
+     */
+    public int getInboundHighWatermark();
+
+    /**
+     * Get the count of received messages of one association waiting for delivery in the inbound dispatch threads at
+     * which the reading from the suspended association channel is resumed. Default value is 0.
+     *
+     * @return
+     */
+    public int getInboundLowWatermark();
+
+    /**
+     * Set the inbound flow control watermarks. When the count of received messages of an association that are not yet
+     * delivered to {@link AssociationListener} reaches the high watermark, the reading from the association channel
+     * is suspended till the count drops to the low watermark, so the peer is slowed down by the transport flow control
+     * instead of the messages being queued in memory. Applied only when the inbound dispatch threads are used, 0 high
+     * watermark disables the inbound flow control.
+     *
+     * @param lowWatermark
+     * @param highWatermark
+     * @throws Exception
+     *             if lowWatermark is less than 0 or highWatermark is not 0 and is not greater than lowWatermark
+     */
+    public void setInboundWatermarks(int lowWatermark, int highWatermark) throws Exception;
+
+    /**
+     * Returns the count of times the reading from an association channel was suspended by the inbound flow control
+     *
+     * @return
+     */
+    public long getInboundReadSuspendedCount();
+
+    /**
+     * Returns true if the SCTP messages that are received in several parts are reassembled into one complete message
+     * before delivering to {@link AssociationListener}. If disabled, the parts are delivered as they are with
+     * {@link PayloadData#isComplete()} false for all of them except the last one. Applied to the new channels. Default
+     * value is true.
+     *
+     * @return
+     */
+    public boolean isReassemblyEnabled();
+
+    /**
+     * Enable or disable the reassembly of the SCTP messages that are received in several parts
+     *
+     * @param reassemblyEnabled
+     */
+    public void setReassemblyEnabled(boolean reassemblyEnabled);
+
+    /**
+     * Get the maximum size in bytes of a reassembled SCTP message, a bigger message is dropped. Default value is
+     * 1048576.
+     *
+     * @return
+     */
+    public int getMaxReassembledMessageSize();
+
+    /**
+     * Set the maximum size in bytes of a reassembled SCTP message. Applied to the new channels.
+     *
+     * @param maxReassembledMessageSize
+     * @throws Exception
+     */
+    public void setMaxReassembledMessageSize(int maxReassembledMessageSize) throws Exception;
+
+    /**
+     * Returns the count of SCTP messages that were reassembled from several parts
+     *
+     * @return
+     */
+    public long getReassembledMessagesCount();
+
+    /**
+     * Returns the count of received parts of SCTP messages that were reassembled or dropped
+     *
+     * @return
+     */
+    public long getReassemblyFragmentsCount();
+
+    /**
+     * Returns the count of SCTP messages that were dropped because their size exceeds the maximum reassembled message
+     * size
+     *
+     * @return
+     */
+    public long getReassemblyDroppedCount();
+
+    /**
+     * Get the transport of the TCP associations and servers. Default value is NIO.
+     *
+     * @return
+     */
+    public TransportType getTransportType();
+
+    /**
+     * Set the transport of the TCP associations and servers. If EPOLL or AUTO is set and the native epoll transport is
+     * not available on this platform, NIO is used. The SCTP associations and servers always use NIO with their own
+     * threads. Applied when the management is started.
+     *
+     * @param transportType
+     * @throws Exception
+     *             if transportType is null
+     */
+    public void setTransportType(TransportType transportType) throws Exception;
+
+    /**
+     * Returns true if the TCP associations and servers of the started management use the native epoll transport
+     *
+     * @return
+     */
+    public boolean isNativeTransport();
+
+    /**
+     * Returns true if the latencies of all the associations are recorded into the histograms of the management. Default
+     * value is false.
+     *
+     * @return
+     */
+    public boolean isLatencyHistogramsEnabled();
+
+    /**
+     * Enable or disable the management latency histograms. Enabling creates empty histograms, disabling drops them.
+     * While the latencies are measured the messages sent through the send queue (see {@link #setSendQueueEnabled})
+     * are written with a promise that is created per message instead of the shared void promise.
+     *
+     * @param latencyHistogramsEnabled
+     */
+    public void setLatencyHistogramsEnabled(boolean latencyHistogramsEnabled);
+
+    /**
+     * Returns true if each association records its latencies into its own histograms, see
+     * {@link Association#getSendLatencyHistogram()}. One histogram takes about 5 KB, so this is intended for a limited
+     * count of associations. Default value is false.
+     *
+     * @return
+     */
+    public boolean isAssociationLatencyHistogramsEnabled();
+
+    /**
+     * Enable or disable the per association latency histograms. The histogram of an association is created when the
+     * first value is recorded and is kept till the association is removed.
+     *
+     * @param associationLatencyHistogramsEnabled
+     */
+    public void setAssociationLatencyHistogramsEnabled(boolean associationLatencyHistogramsEnabled);
+
+    /**
+     * Returns the histogram of the time in nanoseconds from {@link Association#send(PayloadData)} (and the other send
+     * and write methods) invoking till the write of the message to the socket has completed, for all the associations
+     *
+     * @return the histogram or null if the management latency histograms are disabled
+     */
+    public LatencyHistogram getSendLatencyHistogram();
+
+    /**
+     * Returns the histogram of the time in nanoseconds from reading a message from the channel till the
+     * {@link AssociationListener#onPayload(Association, PayloadData)} (or
+     * {@link AssociationBatchListener#onPayloads(Association, java.util.List)}) has returned, for all the associations.
+     * The time includes the wait in the inbound dispatch queue.
+     *
+     * @return the histogram or null if the management latency histograms are disabled
+     */
+    public LatencyHistogram getReceiveLatencyHistogram();
+
     /**
 	 * Modify existed {@link Server}.
 	 * 
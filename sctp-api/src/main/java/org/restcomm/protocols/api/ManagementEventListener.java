@@ -55,5 +55,8 @@ public interface ManagementEventListener {
 	public void onServerModified(Server removeServer);
 
 	public void onAssociationModified(Association association);
+
+	public default void onAssociationCongestionLevelChanged(Association association, int oldLevel, int newLevel) {
+	}
 	
 }
@@ -63,6 +63,90 @@ public interface Server {
 	 */
 	public void setMaxConcurrentConnectionsCount(int val);
 
+	/**
+	 * Get the maximum count of anonymous connections that a Server accepts per
+	 * second, the connections over this rate are closed without invoking
+	 * {@link ServerListener}. 0 means an unlimited rate. Default value is 0.
+	 * 
+	 * @return
+	 */
+	public int getMaxAcceptRate();
+
+	/**
+	 * Set the maximum count of anonymous connections that a Server accepts per
+	 * second. Up to this count of connections may be accepted at once after a
+	 * quiet period. 0 means an unlimited rate.
+	 * 
+	 * @param val
+	 */
+	public void setMaxAcceptRate(int val);
+
+	/**
+	 * Returns the count of incoming connections (provisioned and anonymous)
+	 * that were accepted
+	 * 
+	 * @return
+	 */
+	public long getAcceptedConnectionsCount();
+
+	/**
+	 * Returns the count of incoming connections that were closed because they
+	 * are not provisioned, the association is not started, the limit of
+	 * concurrent connections is reached or {@link ServerListener} did not
+	 * start the anonymous association
+	 * 
+	 * @return
+	 */
+	public long getRejectedConnectionsCount();
+
+	/**
+	 * Returns the count of incoming anonymous connections that were closed
+	 * because the maximum accept rate was exceeded
+	 * 
+	 * @return
+	 */
+	public long getThrottledConnectionsCount();
+
+	/**
+	 * Get the length of the queue of incoming connections that are not
+	 * accepted yet. Default value is 100.
+	 * 
+	 * @return
+	 */
+	public int getBacklog();
+
+	/**
+	 * Set the length of the queue of incoming connections that are not
+	 * accepted yet. Applied when the server is started.
+	 * 
+	 * @param backlog
+	 * @throws Exception
+	 *             if backlog is less than 1
+	 */
+	public void setBacklog(int backlog) throws Exception;
+
+	/**
+	 * Get the count of listening sockets that a TCP server binds to its
+	 * address. Default value is 1.
+	 * 
+	 * @return
+	 */
+	public int getAcceptorsCount();
+
+	/**
+	 * Set the count of listening sockets that a TCP server binds to its
+	 * address with SO_REUSEPORT, so the kernel spreads the incoming
+	 * connections between them and they are accepted by different boss
+	 * threads. More than 1 acceptor requires the native epoll transport, with
+	 * NIO or for SCTP servers a single socket is bound. Applied when the
+	 * server is started.
+	 * 
+	 * @param acceptorsCount
+	 * @throws Exception
+	 *             if acceptorsCount is less than 1
+	 */
+	public void setAcceptorsCount(int acceptorsCount) throws Exception;
+
 	/**
 	 * Get name of this Server. Should be unique in a management instance
 	 * 
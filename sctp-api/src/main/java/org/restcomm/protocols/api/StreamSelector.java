@@ -0,0 +1,77 @@
+package org.restcomm.protocols.api;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+/**
+ * Chooses the SCTP stream for outgoing {@link PayloadData} of an
+ * {@link Association}. When a selector is set for the association, the
+ * stream number of the sent PayloadData is ignored and the selected stream is
+ * used instead. The selected stream is validated against the
+ * maxOutboundStreams negotiated for the association, the data for an invalid
+ * stream is dropped and {@link AssociationListener#inValidStreamId(PayloadData)}
+ * is invoked. Selectors are used for SCTP associations only.
+ * 
+ * @author yulianoifa
+ * 
+ */
+public interface StreamSelector {
+	/**
+	 * Returns the stream number (0..maxOutboundStreams-1) that the payload
+	 * data is sent on. This method is invoked by the sending thread and must
+	 * be thread safe.
+	 * 
+	 * @param payloadData
+	 * @param maxOutboundStreams
+	 *            the count of outbound streams negotiated for the association
+	 * @return
+	 */
+	public int selectStream(PayloadData payloadData, int maxOutboundStreams);
+
+	/**
+	 * Returns true if the selector needs {@link #onMessageQueued(int)} and
+	 * {@link #onMessageSent(int)} notifications. Sending with such selector
+	 * needs a write completion listener for each message, so the messages are
+	 * written directly and not via the send queue of the association.
+	 * 
+	 * @return
+	 */
+	public default boolean isQueueAware() {
+		return false;
+	}
+
+	/**
+	 * Invoked when a message is accepted for sending on the stream
+	 * 
+	 * @param streamNumber
+	 */
+	public default void onMessageQueued(int streamNumber) {
+	}
+
+	/**
+	 * Invoked when the write of a message on the stream is completed
+	 * (successfully or not)
+	 * 
+	 * @param streamNumber
+	 */
+	public default void onMessageSent(int streamNumber) {
+	}
+}
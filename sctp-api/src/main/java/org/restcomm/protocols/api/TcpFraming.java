@@ -0,0 +1,50 @@
+package org.restcomm.protocols.api;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Splits the byte stream of a TCP {@link Association} into messages. When a
+ * framing is set for the association, every {@link PayloadData} passed to
+ * {@link AssociationListener} contains exactly one complete message, the
+ * bytes that do not form a complete message yet are kept till the next read.
+ * Without framing the data is passed as it is read from the socket.
+ * 
+ * @author yulianoifa
+ * 
+ */
+public interface TcpFraming {
+
+	/**
+	 * Returns the length in bytes of the message that starts at the reader
+	 * index of the buffer, or -1 if the buffer does not contain enough bytes
+	 * to determine it. The buffer must not be modified. An exception thrown by
+	 * this method means that the stream is corrupted, the connection is closed
+	 * in this case.
+	 * 
+	 * @param buffer
+	 * @return
+	 * @throws Exception
+	 */
+	public int getFrameLength(ByteBuf buffer) throws Exception;
+}
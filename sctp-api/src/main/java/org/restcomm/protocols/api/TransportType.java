@@ -0,0 +1,85 @@
+package org.restcomm.protocols.api;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+/**
+ * The netty transport that is used for the TCP associations and servers. The
+ * SCTP associations and servers always use the NIO transport.
+ * 
+ * @author yulianoifa
+ * 
+ */
+public enum TransportType {
+	/**
+	 * Java NIO transport, available on all platforms
+	 */
+	NIO(0, "NIO"),
+	/**
+	 * Linux native epoll transport
+	 */
+	EPOLL(1, "EPOLL"),
+	/**
+	 * Native epoll transport if it is available, NIO otherwise
+	 */
+	AUTO(2, "AUTO");
+
+	int code;
+	String type;
+
+	private TransportType(int code, String type) {
+		this.code = code;
+		this.type = type;
+	}
+
+	public int getCode() {
+		return this.code;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public static TransportType getInstance(int code) {
+		switch (code) {
+		case 0:
+			return TransportType.NIO;
+		case 1:
+			return TransportType.EPOLL;
+		case 2:
+			return TransportType.AUTO;
+		}
+
+		return null;
+	}
+
+	public static TransportType getInstance(String type) {
+		if (type.equalsIgnoreCase("NIO")) {
+			return NIO;
+		} else if (type.equalsIgnoreCase("EPOLL")) {
+			return EPOLL;
+		} else if (type.equalsIgnoreCase("AUTO")) {
+			return AUTO;
+		}
+
+		return null;
+	}
+}
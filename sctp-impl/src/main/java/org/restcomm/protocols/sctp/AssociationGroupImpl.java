@@ -0,0 +1,266 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationGroup;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.SendFailedException;
+
+/**
+ * Load shares the sent data between the member associations. The active members are kept as an immutable array of
+ * slots where each member appears as many times as its weight, interleaved by smooth weighted round robin. The array is
+ * rebuilt when a member goes up or down or crosses the congestion exclusion level, so the sending path only reads a
+ * volatile reference and increments a counter
+ *
+ * @author yulianoifa
+ *
+ */
+public class AssociationGroupImpl implements AssociationGroup {
+
+    protected static final Logger logger = LogManager.getLogger(AssociationGroupImpl.class.getName());
+
+    private static final SendFailedException NO_ACTIVE_ASSOCIATION_EXCEPTION = new SendFailedException(
+            "No active Association in AssociationGroup");
+
+    private static final int MAX_WEIGHT = 100;
+    private static final Snapshot EMPTY_SNAPSHOT = new Snapshot(new AssociationImpl[0], 0);
+
+    private final String name;
+    private final SctpManagementImpl management;
+
+    // guarded by this
+    private final Map<String, Member> members = new LinkedHashMap<String, Member>();
+    private volatile int congestionExclusionLevel = 3;
+
+    private volatile Snapshot snapshot = EMPTY_SNAPSHOT;
+    private final AtomicInteger index = new AtomicInteger(0);
+
+    public AssociationGroupImpl(String name, SctpManagementImpl management) {
+        this.name = name;
+        this.management = management;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void addAssociation(String assocName, int weight) throws Exception {
+        if (weight < 1 || weight > MAX_WEIGHT)
+            throw new Exception(String.format("Weight must be from 1 to %d", MAX_WEIGHT));
+
+        AssociationImpl association = (AssociationImpl) this.management.getAssociation(assocName);
+        synchronized (this) {
+            if (this.members.containsKey(assocName))
+                throw new Exception(String.format("AssociationGroup=%s already has Association=%s", this.name, assocName));
+
+            this.members.put(assocName, new Member(association, weight));
+            association.addGroup(this);
+            this.rebuild();
+        }
+    }
+
+    @Override
+    public void removeAssociation(String assocName) throws Exception {
+        synchronized (this) {
+            Member member = this.members.remove(assocName);
+            if (member == null)
+                throw new Exception(String.format("AssociationGroup=%s has no Association=%s", this.name, assocName));
+
+            member.association.removeGroup(this);
+            this.rebuild();
+        }
+    }
+
+    protected synchronized void removeAll() {
+        for (Member member : this.members.values())
+            member.association.removeGroup(this);
+
+        this.members.clear();
+        this.rebuild();
+    }
+
+    @Override
+    public synchronized Map<String, Integer> getAssociationWeights() {
+        Map<String, Integer> weights = new LinkedHashMap<String, Integer>();
+        for (Map.Entry<String, Member> entry : this.members.entrySet())
+            weights.put(entry.getKey(), entry.getValue().weight);
+        return weights;
+    }
+
+    @Override
+    public List<Association> getActiveAssociations() {
+        List<Association> active = new ArrayList<Association>();
+        for (AssociationImpl association : this.snapshot.slots) {
+            if (!active.contains(association))
+                active.add(association);
+        }
+        return active;
+    }
+
+    @Override
+    public int getCongestionExclusionLevel() {
+        return congestionExclusionLevel;
+    }
+
+    @Override
+    public void setCongestionExclusionLevel(int congestionExclusionLevel) throws Exception {
+        if (congestionExclusionLevel < 1 || congestionExclusionLevel > 3)
+            throw new Exception("Congestion exclusion level must be from 1 to 3");
+
+        synchronized (this) {
+            this.congestionExclusionLevel = congestionExclusionLevel;
+            this.rebuild();
+        }
+    }
+
+    @Override
+    public void send(PayloadData payloadData) throws Exception {
+        this.send(payloadData, index.getAndIncrement() & Integer.MAX_VALUE, this.snapshot);
+    }
+
+    @Override
+    public void send(PayloadData payloadData, int key) throws Exception {
+        // spreading the high bits, keys are often sequential or aligned numbers
+        key ^= (key >>> 16);
+        this.send(payloadData, key & Integer.MAX_VALUE, this.snapshot);
+    }
+
+    private void send(PayloadData payloadData, int position, Snapshot currentSnapshot) throws Exception {
+        AssociationImpl[] currentSlots = currentSnapshot.slots;
+        int length = currentSlots.length;
+        if (length == 0)
+            throw NO_ACTIVE_ASSOCIATION_EXCEPTION;
+
+        // the snapshot may be stale for a moment after a member goes down, trying the next members in this case
+        int attempts = currentSnapshot.members;
+        int slot = position % length;
+        for (int i = 1;; i++) {
+            try {
+                currentSlots[slot].send(payloadData);
+                return;
+            } catch (SendFailedException e) {
+                if (i >= attempts)
+                    throw e;
+            }
+
+            AssociationImpl failed = currentSlots[slot];
+            do {
+                slot = (slot + 1) % length;
+            } while (currentSlots[slot] == failed);
+        }
+    }
+
+    /**
+     * Invoked when a member goes up or down
+     */
+    protected void onMemberStateChanged(AssociationImpl association) {
+        synchronized (this) {
+            this.rebuild();
+        }
+    }
+
+    /**
+     * Invoked when the congestion level of a member changes
+     */
+    protected void onMemberCongestionLevelChanged(AssociationImpl association, int oldLevel, int newLevel) {
+        int level = this.congestionExclusionLevel;
+        if ((oldLevel >= level) != (newLevel >= level)) {
+            synchronized (this) {
+                this.rebuild();
+            }
+        }
+    }
+
+    // must be invoked with the lock held
+    private void rebuild() {
+        int level = this.congestionExclusionLevel;
+        List<Member> active = new ArrayList<Member>(this.members.size());
+        int totalWeight = 0;
+        for (Member member : this.members.values()) {
+            AssociationImpl association = member.association;
+            if (association.isConnected() && association.getCongestionLevel() < level) {
+                active.add(member);
+                totalWeight += member.weight;
+            }
+        }
+
+        // smooth weighted round robin: the member with the biggest current weight takes the slot, so the slots of a
+        // member are spread evenly instead of going in a row
+        AssociationImpl[] newSlots = new AssociationImpl[totalWeight];
+        int[] current = new int[active.size()];
+        for (int i = 0; i < totalWeight; i++) {
+            int best = 0;
+            for (int j = 0; j < current.length; j++) {
+                current[j] += active.get(j).weight;
+                if (current[j] > current[best])
+                    best = j;
+            }
+            current[best] -= totalWeight;
+            newSlots[i] = active.get(best).association;
+        }
+
+        this.snapshot = new Snapshot(newSlots, active.size());
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("AssociationGroup=%s active associations=%d slots=%d", this.name,
+                    active.size(), newSlots.length));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AssociationGroup [name=" + name + ", associations=" + getAssociationWeights().keySet() + ", active="
+                + snapshot.members + "]";
+    }
+
+    private static final class Snapshot {
+        private final AssociationImpl[] slots;
+        // count of distinct associations in slots
+        private final int members;
+
+        Snapshot(AssociationImpl[] slots, int members) {
+            this.slots = slots;
+            this.members = members;
+        }
+    }
+
+    private static final class Member {
+        private final AssociationImpl association;
+        private final int weight;
+
+        Member(AssociationImpl association, int weight) {
+            this.association = association;
+            this.weight = weight;
+        }
+    }
+}
@@ -25,33 +25,48 @@ package org.restcomm.protocols.sctp;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationBatchListener;
 import org.restcomm.protocols.api.AssociationListener;
 import org.restcomm.protocols.api.AssociationType;
+import org.restcomm.protocols.api.CongestionPolicy;
 import org.restcomm.protocols.api.IpChannelType;
+import org.restcomm.protocols.api.LatencyHistogram;
 import org.restcomm.protocols.api.ManagementEventListener;
 import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.SendFailedException;
+import org.restcomm.protocols.api.StreamSelector;
+import org.restcomm.protocols.api.TcpFraming;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.ConnectTimeoutException;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.sctp.SctpChannel;
 import io.netty.channel.sctp.SctpChannelOption;
 import io.netty.channel.sctp.SctpMessage;
 import io.netty.channel.sctp.nio.NioSctpChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ImmediateEventExecutor;
 
 /**
  * @author <a href="mailto:amit.bhayani@telestax.com">Amit Bhayani</a>
@@ -62,6 +77,26 @@ public class AssociationImpl implements Association {
 
     protected static final Logger logger = LogManager.getLogger(AssociationImpl.class.getName());
 
+    // failures of the sending path are preallocated and do not carry stack trace, they are signalled very often when
+    // the peer is down or slow
+    static final SendFailedException ASSOCIATION_DOWN_EXCEPTION = new SendFailedException(
+            "Association is not started or underlying sctp/tcp channel is down");
+    private static final SendFailedException ASSOCIATION_CONGESTED_EXCEPTION = new SendFailedException(
+            "Association is congested");
+    private static final SendFailedException PAYLOAD_DROPPED_EXCEPTION = new SendFailedException(
+            "Payload is dropped because of Association congestion");
+    private static final SendFailedException INVALID_STREAM_EXCEPTION = new SendFailedException(
+            "Payload is dropped because its stream number is not valid for Association");
+
+    private static final Future<Void> ASSOCIATION_DOWN_FUTURE = ImmediateEventExecutor.INSTANCE
+            .newFailedFuture(ASSOCIATION_DOWN_EXCEPTION);
+    private static final Future<Void> ASSOCIATION_CONGESTED_FUTURE = ImmediateEventExecutor.INSTANCE
+            .newFailedFuture(ASSOCIATION_CONGESTED_EXCEPTION);
+    private static final Future<Void> PAYLOAD_DROPPED_FUTURE = ImmediateEventExecutor.INSTANCE
+            .newFailedFuture(PAYLOAD_DROPPED_EXCEPTION);
+    private static final Future<Void> INVALID_STREAM_FUTURE = ImmediateEventExecutor.INSTANCE
+            .newFailedFuture(INVALID_STREAM_EXCEPTION);
+
     private String hostAddress;
     private int hostPort;
     private String peerAddress;
@@ -75,6 +110,12 @@ public class AssociationImpl implements Association {
     private AssociationType type;
 
     private AssociationListener associationListener = null;
+    private volatile StreamSelector streamSelector = null;
+    private volatile TcpFraming tcpFraming = null;
+    // preallocated write completion listeners of a queue aware stream selector, indexed by stream number
+    private volatile StreamSentListener[] streamSentListeners = null;
+    // groups that this association is a member of
+    private final List<AssociationGroupImpl> groups = new CopyOnWriteArrayList<AssociationGroupImpl>();
 
     private SctpManagementImpl management;
 
@@ -86,16 +127,19 @@ public class AssociationImpl implements Association {
     protected volatile boolean up = false;
 
     private NettySctpChannelInboundHandlerAdapter channelHandler;
-    protected int congLevel;
-
-    private AtomicInteger communicationsUp=new AtomicInteger(0);
-    private AtomicInteger communicationsDown=new AtomicInteger(0);
-    private AtomicInteger communicationsLost=new AtomicInteger(0);
-    private AtomicInteger communicationsRestart=new AtomicInteger(0);
-    private AtomicLong packetsSent=new AtomicLong(0);
-    private AtomicLong packetsReceived=new AtomicLong(0);
-    private AtomicLong bytesSent=new AtomicLong(0);
-    private AtomicLong bytesReceived=new AtomicLong(0);
+    protected final AtomicInteger congLevel = new AtomicInteger(0);
+    // payloads that are passed to the inbound dispatcher and not delivered yet, the reading from the channel is
+    // suspended while this count is above the inbound high watermark
+    private final AtomicInteger inboundPending = new AtomicInteger(0);
+    private final AtomicBoolean inboundSuspended = new AtomicBoolean(false);
+    // connection attempts since the association was up, the reconnect delay grows with this count
+    private final AtomicInteger connectAttempts = new AtomicInteger(0);
+
+    // the hot statistics counters of the association are striped, the rest are kept in one compact block
+    private final AssociationStatistics statistics = new AssociationStatistics();
+    // created on the first recorded value when the per association latency histograms are enabled
+    private volatile LatencyHistogram sendLatencyHistogram = null;
+    private volatile LatencyHistogram receiveLatencyHistogram = null;
     
     public AssociationImpl() {
         super();
@@ -353,30 +397,403 @@ public class AssociationImpl implements Association {
      */
     @Override
     public void send(PayloadData payloadData) throws Exception {
-        if (logger.isDebugEnabled()) {
-            logger.debug(String.format("Tx : Ass=%s %s", this.getName(), payloadData));
+        long startTime = this.getLatencyStartTime();
+        NettySctpChannelInboundHandlerAdapter handler = checkSocketIsOpen();
+        if (!checkCongestionPolicy()) {
+            this.dropPayload(payloadData);
+            return;
         }
 
+        StreamSelector selector = this.streamSelector;
+        Object message = this.encode(payloadData, handler, selector);
+        if (message == null)
+            return;
+
+        this.updateSentStatistics(1, payloadData.getByteBuf());
+        ChannelFutureListener sentListener = this.getStreamSentListener(message, selector);
+        if (sentListener == null && this.management.isSendQueueEnabled()) {
+            handler.enqueue(message, startTime);
+        } else {
+            handler.writeAndFlush(message, sentListener, startTime);
+            handler.checkCongestion();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Association#sendAsync(org.restcomm.protocols.api.PayloadData)
+     */
+    @Override
+    public Future<Void> sendAsync(PayloadData payloadData) {
+        NettySctpChannelInboundHandlerAdapter handler = this.channelHandler;
+        Channel channel = handler != null ? handler.channel : null;
+        if (!this.started || channel == null)
+            return ASSOCIATION_DOWN_FUTURE;
+
+        CongestionPolicy policy = this.getCongestionPolicyToApply();
+        if (policy == CongestionPolicy.REJECT)
+            return ASSOCIATION_CONGESTED_FUTURE;
+        if (policy == CongestionPolicy.DROP) {
+            this.dropPayload(payloadData);
+            return PAYLOAD_DROPPED_FUTURE;
+        }
+
+        StreamSelector selector = this.streamSelector;
+        Object message = this.encode(payloadData, handler, selector);
+        if (message == null)
+            return INVALID_STREAM_FUTURE;
+
+        this.updateSentStatistics(1, payloadData.getByteBuf());
+        ChannelFutureListener sentListener = this.getStreamSentListener(message, selector);
+        if (sentListener == null && this.management.isSendQueueEnabled()) {
+            // queued like the messages of send(), so the messages of both keep their order on the stream
+            SendPromise promise = new SendPromise(channel, message);
+            handler.enqueue(promise);
+            return promise;
+        }
+
+        SendPromise promise = new SendPromise(channel, null);
+        if (sentListener != null)
+            promise.addListener(sentListener);
+        channel.writeAndFlush(message, promise);
+        handler.checkCongestion();
+        return promise;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Association#send(java.util.Collection)
+     */
+    @Override
+    public void send(Collection<PayloadData> payloadDatas) throws Exception {
+        long startTime = this.getLatencyStartTime();
         NettySctpChannelInboundHandlerAdapter handler = checkSocketIsOpen();
 
-        packetsSent.incrementAndGet();
-        if(payloadData.getByteBuf()!=null)
-        	bytesSent.addAndGet(payloadData.getByteBuf().readableBytes());
-        
-        final ByteBuf byteBuf = payloadData.getByteBuf();
-        if (this.ipChannelType == IpChannelType.SCTP) {
-            SctpMessage sctpMessage = new SctpMessage(payloadData.getPayloadProtocolId(), payloadData.getStreamNumber(),
-                    payloadData.isUnordered(), byteBuf);
-            handler.writeAndFlush(sctpMessage);
+        if (payloadDatas.isEmpty())
+            return;
+
+        if (!checkCongestionPolicy()) {
+            for (PayloadData payloadData : payloadDatas)
+                this.dropPayload(payloadData);
+            return;
+        }
+
+        StreamSelector selector = this.streamSelector;
+        boolean queued = this.management.isSendQueueEnabled() && (selector == null || !selector.isQueueAware());
+        int packets = 0;
+        long bytes = 0;
+        for (PayloadData payloadData : payloadDatas) {
+            Object message = this.encode(payloadData, handler, selector);
+            if (message == null)
+                continue;
+
+            // the size is taken before the buffer is handed over to the event loop
+            packets++;
+            if (payloadData.getByteBuf() != null)
+                bytes += payloadData.getByteBuf().readableBytes();
+            if (queued)
+                handler.enqueue(message, startTime);
+            else
+                handler.write(message, this.getStreamSentListener(message, selector), startTime);
+        }
+
+        statistics.add(AssociationStatistics.PACKETS_SENT, packets);
+        statistics.add(AssociationStatistics.BYTES_SENT, bytes);
+        if (!queued) {
+            handler.flush();
+            handler.checkCongestion();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Association#write(org.restcomm.protocols.api.PayloadData)
+     */
+    @Override
+    public void write(PayloadData payloadData) throws Exception {
+        long startTime = this.getLatencyStartTime();
+        NettySctpChannelInboundHandlerAdapter handler = checkSocketIsOpen();
+        if (!checkCongestionPolicy()) {
+            this.dropPayload(payloadData);
+            return;
+        }
+
+        StreamSelector selector = this.streamSelector;
+        Object message = this.encode(payloadData, handler, selector);
+        if (message == null)
+            return;
+
+        this.updateSentStatistics(1, payloadData.getByteBuf());
+        ChannelFutureListener sentListener = this.getStreamSentListener(message, selector);
+        if (sentListener == null && this.management.isSendQueueEnabled()) {
+            // the queue is flushed by its drain, so the message keeps its order with the queued sends
+            handler.enqueue(message, startTime);
         } else {
-            handler.writeAndFlush(byteBuf);
+            handler.write(message, sentListener, startTime);
+            handler.checkCongestion();
         }
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Association#flush()
+     */
+    @Override
+    public void flush() throws Exception {
+        NettySctpChannelInboundHandlerAdapter handler = checkSocketIsOpen();
+        if (this.management.isSendQueueEnabled())
+            return;
+
+        handler.flush();
+        handler.checkCongestion();
+    }
+
+    /**
+     * Creates the message for the channel. For SCTP the stream is chosen by the stream selector (if it is set) and
+     * validated against the negotiated count of outbound streams
+     *
+     * @return the message or null if the stream is not valid, the payload is released in this case
+     */
+    private Object encode(PayloadData payloadData, NettySctpChannelInboundHandlerAdapter handler,
+            StreamSelector selector) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Tx : Ass=%s %s", this.getName(), payloadData));
+        }
+
+        final ByteBuf byteBuf = payloadData.getByteBuf();
+        if (this.ipChannelType != IpChannelType.SCTP)
+            return byteBuf;
+
+        int maxOutboundStreams = handler.getMaxOutboundStreams();
+        int streamNumber = selector != null ? selector.selectStream(payloadData, maxOutboundStreams)
+                : payloadData.getStreamNumber();
+        if (streamNumber < 0 || streamNumber >= maxOutboundStreams) {
+            this.invalidStreamId(payloadData, streamNumber, maxOutboundStreams);
+            return null;
+        }
+
+        if (selector != null && selector.isQueueAware())
+            selector.onMessageQueued(streamNumber);
+
+        return new SctpMessage(payloadData.getPayloadProtocolId(), streamNumber, payloadData.isUnordered(), byteBuf);
+    }
+
+    private void invalidStreamId(PayloadData payloadData, int streamNumber, int maxOutboundStreams) {
+        logger.error(String.format("Tx : Ass=%s stream number %d is not valid, maxOutboundStreams=%d, dropping %s",
+                this.getName(), streamNumber, maxOutboundStreams, payloadData));
+
+        AssociationListener listener = this.associationListener;
+        if (listener != null) {
+            try {
+                listener.inValidStreamId(payloadData);
+            } catch (Throwable ee) {
+                logger.error("Exception while invoking inValidStreamId", ee);
+            }
+        }
+
+        payloadData.releaseBuffer();
+    }
+
+    private ChannelFutureListener getStreamSentListener(Object message, StreamSelector selector) {
+        if (selector == null || !selector.isQueueAware() || !(message instanceof SctpMessage))
+            return null;
+
+        int streamNumber = ((SctpMessage) message).streamIdentifier();
+        StreamSentListener[] listeners = this.streamSentListeners;
+        if (listeners == null || streamNumber >= listeners.length || listeners[streamNumber].selector != selector) {
+            // the listeners are created once per selector and count of streams, the listeners of a previous selector
+            // that are still attached to the writes in progress notify that selector
+            int size = Math.max(streamNumber + 1, this.channelHandler != null
+                    ? this.channelHandler.getMaxOutboundStreams() : 0);
+            listeners = new StreamSentListener[size];
+            for (int i = 0; i < size; i++)
+                listeners[i] = new StreamSentListener(selector, i);
+            this.streamSentListeners = listeners;
+        }
+
+        return listeners[streamNumber];
+    }
+
+    /**
+     * Returns the current time in nanoseconds if the latencies are recorded into any histogram, 0 otherwise
+     */
+    protected long getLatencyStartTime() {
+        return this.management.isLatencyMeasured() ? System.nanoTime() : 0;
+    }
+
+    protected void recordSendLatency(long startTime) {
+        long latency = System.nanoTime() - startTime;
+        LatencyHistogram histogram = this.management.getSendLatencyHistogram();
+        if (histogram != null)
+            histogram.recordValue(latency);
+        if (this.management.isAssociationLatencyHistogramsEnabled())
+            this.getSendLatencyHistogram().recordValue(latency);
+    }
+
+    private void recordReceiveLatency(long readTime, int count) {
+        long latency = System.nanoTime() - readTime;
+        LatencyHistogram histogram = this.management.getReceiveLatencyHistogram();
+        if (histogram != null)
+            histogram.recordValues(latency, count);
+        if (this.management.isAssociationLatencyHistogramsEnabled())
+            this.getReceiveLatencyHistogram().recordValues(latency, count);
+    }
+
+    private synchronized void createLatencyHistograms() {
+        if (this.sendLatencyHistogram == null) {
+            this.receiveLatencyHistogram = new LatencyHistogram();
+            this.sendLatencyHistogram = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Applies the congestion policy of management to the sent data
+     *
+     * @return false if the data must be dropped
+     * @throws Exception if the data must be rejected
+     */
+    private boolean checkCongestionPolicy() throws Exception {
+        CongestionPolicy policy = this.getCongestionPolicyToApply();
+        if (policy == CongestionPolicy.REJECT)
+            throw ASSOCIATION_CONGESTED_EXCEPTION;
+
+        return policy != CongestionPolicy.DROP;
+    }
+
+    private CongestionPolicy getCongestionPolicyToApply() {
+        CongestionPolicy policy = this.management.getCongestionPolicy();
+        if (policy != CongestionPolicy.NONE && this.congLevel.get() >= this.management.getCongestionPolicyLevel())
+            return policy;
+
+        return CongestionPolicy.NONE;
+    }
+
+    private void dropPayload(PayloadData payloadData) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Dropped because of congestion : Ass=%s %s", this.getName(), payloadData));
+        }
+
+        statistics.increment(AssociationStatistics.PACKETS_DROPPED);
+        payloadData.releaseBuffer();
+    }
+
+    /**
+     * Recalculates the congestion level from the amount of bytes queued for sending. Level N (1..3) is reached when
+     * the queued amount reaches highWatermark * N / 3 and is left when it goes below lowWatermark * N / 3
+     *
+     * @return the current congestion level
+     */
+    protected int updateCongestionLevel(long pendingBytes) {
+        WriteBufferWaterMark watermark = this.management.getCongestionWatermark();
+        while (true) {
+            int oldLevel = this.congLevel.get();
+            int newLevel = oldLevel;
+            while (newLevel < 3 && pendingBytes >= (long) watermark.high() * (newLevel + 1) / 3)
+                newLevel++;
+            while (newLevel > 0 && pendingBytes < (long) watermark.low() * newLevel / 3)
+                newLevel--;
+
+            if (newLevel == oldLevel)
+                return newLevel;
+
+            if (this.congLevel.compareAndSet(oldLevel, newLevel)) {
+                this.fireCongestionLevelChanged(oldLevel, newLevel);
+                return newLevel;
+            }
+        }
+    }
+
+    private void fireCongestionLevelChanged(int oldLevel, int newLevel) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Congestion level changed from %d to %d for Association=%s", oldLevel, newLevel,
+                    this.name));
+        }
+
+        for (AssociationGroupImpl group : this.groups)
+            group.onMemberCongestionLevelChanged(this, oldLevel, newLevel);
+
+        AssociationListener listener = this.associationListener;
+        if (listener != null) {
+            try {
+                listener.onCongestionLevelChanged(this, oldLevel, newLevel);
+            } catch (Throwable ee) {
+                logger.error("Exception while invoking onCongestionLevelChanged", ee);
+            }
+        }
+
+        for (ManagementEventListener lstr : this.management.getManagementEventListeners()) {
+            try {
+                lstr.onAssociationCongestionLevelChanged(this, oldLevel, newLevel);
+            } catch (Throwable ee) {
+                logger.error("Exception while invoking onAssociationCongestionLevelChanged", ee);
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Association#getCongestionLevel()
+     */
+    @Override
+    public int getCongestionLevel() {
+        return this.congLevel.get();
+    }
+
+    private void updateSentStatistics(int packets, ByteBuf byteBuf) {
+        statistics.add(AssociationStatistics.PACKETS_SENT, packets);
+        if (byteBuf != null)
+            statistics.add(AssociationStatistics.BYTES_SENT, byteBuf.readableBytes());
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Association#getStreamSelector()
+     */
+    @Override
+    public StreamSelector getStreamSelector() {
+        return this.streamSelector;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Association#setStreamSelector(org.restcomm.protocols.api.StreamSelector)
+     */
+    @Override
+    public void setStreamSelector(StreamSelector streamSelector) {
+        this.streamSelector = streamSelector;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Association#getTcpFraming()
+     */
+    @Override
+    public TcpFraming getTcpFraming() {
+        return this.tcpFraming;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Association#setTcpFraming(org.restcomm.protocols.api.TcpFraming)
+     */
+    @Override
+    public void setTcpFraming(TcpFraming tcpFraming) {
+        this.tcpFraming = tcpFraming;
+    }
+
     private NettySctpChannelInboundHandlerAdapter checkSocketIsOpen() throws Exception {
         NettySctpChannelInboundHandlerAdapter handler = this.channelHandler;
         if (!this.started || handler == null)
-            throw new Exception(String.format(
+            throw new SendFailedException(String.format(
                     "Association is not started or underlying sctp/tcp channel is down for Association=%s", this.name));
         return handler;
     }
@@ -494,7 +911,10 @@ public class AssociationImpl implements Association {
         }
     }
 
-    protected void stop() throws Exception {
+    /**
+     * @return the close future of the association channel, null if there is no channel
+     */
+    protected ChannelFuture stop() throws Exception {
         if (logger.isInfoEnabled()) {
             logger.info(String.format("Management requested to stop %s", this.toString()));
         }
@@ -509,20 +929,151 @@ public class AssociationImpl implements Association {
 
         NettySctpChannelInboundHandlerAdapter handler = this.channelHandler;
         if (handler != null) {
-            handler.closeChannel();
+            // the sends are rejected from now as the association is not started, the already sent messages are
+            // written before the close if the drain is configured
+            int drainTimeout = this.management.getStopDrainTimeout();
+            if (drainTimeout > 0)
+                return handler.drainAndClose(drainTimeout);
+
+            return handler.closeChannel();
         }
+        return null;
     }
 
-    protected void read(PayloadData payload) {
+    protected void onOutboundDrained(long drainedMessages, long drainedBytes, long droppedMessages, long droppedBytes) {
+        this.management.drainedOnStopMessages.addAndGet(drainedMessages);
+        this.management.drainedOnStopBytes.addAndGet(drainedBytes);
+        this.management.droppedOnStopMessages.addAndGet(droppedMessages);
+        this.management.droppedOnStopBytes.addAndGet(droppedBytes);
+
+        if (droppedMessages > 0) {
+            logger.warn(String.format("Association=%s stopped, drained messages=%d bytes=%d, dropped messages=%d bytes=%d",
+                    this.getName(), drainedMessages, drainedBytes, droppedMessages, droppedBytes));
+        } else if (drainedMessages > 0 && logger.isInfoEnabled()) {
+            logger.info(String.format("Association=%s stopped, drained messages=%d bytes=%d", this.getName(),
+                    drainedMessages, drainedBytes));
+        }
+    }
+
+    protected void read(PayloadData payload, long readTime) {
+        statistics.increment(AssociationStatistics.PACKETS_RECEIVED);
+        if(payload.getByteBuf()!=null)
+            statistics.add(AssociationStatistics.BYTES_RECEIVED, payload.getByteBuf().readableBytes());
+
+        InboundDispatcher dispatcher = this.management.getInboundDispatcher();
+        if (dispatcher != null)
+            dispatcher.dispatch(this, payload, readTime);
+        else
+            this.deliver(payload, readTime);
+    }
+
+    /**
+     * Delivers the payloads of one read cycle
+     *
+     * @return true if the list is passed to the inbound dispatcher and must not be reused by the caller
+     */
+    protected boolean read(List<PayloadData> payloads, long readTime) {
+        long bytes = 0;
+        for (int i = 0; i < payloads.size(); i++) {
+            ByteBuf byteBuf = payloads.get(i).getByteBuf();
+            if (byteBuf != null)
+                bytes += byteBuf.readableBytes();
+        }
+        statistics.add(AssociationStatistics.PACKETS_RECEIVED, payloads.size());
+        statistics.add(AssociationStatistics.BYTES_RECEIVED, bytes);
+
+        InboundDispatcher dispatcher = this.management.getInboundDispatcher();
+        if (dispatcher != null) {
+            dispatcher.dispatch(this, payloads, readTime);
+            return true;
+        }
+
+        this.deliver(payloads, readTime);
+        return false;
+    }
+
+    protected void onInboundQueued(int count) {
+        int pending = this.inboundPending.addAndGet(count);
+        int highWatermark = this.management.getInboundHighWatermark();
+        if (highWatermark > 0 && pending >= highWatermark && this.inboundSuspended.compareAndSet(false, true)) {
+            this.management.inboundReadSuspended.incrementAndGet();
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Suspending read, %d payloads wait for delivery : Ass=%s", pending, this.name));
+            }
+            this.updateAutoRead();
+        }
+    }
+
+    protected void onInboundDelivered(int count) {
+        int pending = this.inboundPending.addAndGet(-count);
+        if (this.inboundSuspended.get() && pending <= this.management.getInboundLowWatermark()
+                && this.inboundSuspended.compareAndSet(true, false)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Resuming read, %d payloads wait for delivery : Ass=%s", pending, this.name));
+            }
+            this.updateAutoRead();
+        }
+    }
+
+    private void updateAutoRead() {
+        // the channel re-reads the flag in its event loop, so the last of concurrent suspend / resume is applied
+        NettySctpChannelInboundHandlerAdapter handler = this.channelHandler;
+        if (handler != null)
+            handler.updateAutoRead();
+    }
+
+    /**
+     * Returns true if the reading from the channel is suspended because the listener does not keep up with the
+     * received payloads
+     */
+    protected boolean isInboundSuspended() {
+        return this.inboundSuspended.get();
+    }
+
+    protected int getInboundPending() {
+        return this.inboundPending.get();
+    }
+
+    /**
+     * Delivers the payloads of one read cycle to the listener
+     *
+     * @param readTime the time when the read cycle has started, 0 if the latency is not recorded
+     */
+    protected void deliver(List<PayloadData> payloads, long readTime) {
+        AssociationListener listener = this.associationListener;
+        if (!(listener instanceof AssociationBatchListener)) {
+            // the listener has been changed after the payloads are read
+            for (int i = 0; i < payloads.size(); i++)
+                this.deliver(payloads.get(i), readTime);
+            return;
+        }
+
+        int count = payloads.size();
+        try {
+            ((AssociationBatchListener) listener).onPayloads(this, payloads);
+        } catch (Exception e) {
+            logger.error(String.format("Error while calling Listener for Association=%s.Payloads=%d", this.name,
+                    count), e);
+        }
+
+        if (readTime != 0)
+            this.recordReceiveLatency(readTime, count);
+    }
+
+    /**
+     * Delivers the payload to the listener
+     *
+     * @param readTime the time when the payload has been read, 0 if the latency is not recorded
+     */
+    protected void deliver(PayloadData payload, long readTime) {
         try {
-        	packetsReceived.incrementAndGet();
-        	if(payload.getByteBuf()!=null)
-        		bytesReceived.addAndGet(payload.getByteBuf().readableBytes());
-        	
             this.associationListener.onPayload(this, payload);
         } catch (Exception e) {
             logger.error(String.format("Error while calling Listener for Association=%s.Payload=%s", this.name, payload), e);
         }
+
+        if (readTime != 0)
+            this.recordReceiveLatency(readTime, 1);
     }
 
     protected void markAssociationUp(int maxInboundStreams, int maxOutboundStreams) {
@@ -531,7 +1082,10 @@ public class AssociationImpl implements Association {
         }
 
         this.up = true;
-        communicationsUp.incrementAndGet();
+        this.connectAttempts.set(0);
+        statistics.increment(AssociationStatistics.COMMUNICATIONS_UP);
+        for (AssociationGroupImpl group : this.groups)
+            group.onMemberStateChanged(this);
         this.getAssociationListener().onCommunicationUp(this, maxInboundStreams, maxOutboundStreams);
 
         for (ManagementEventListener lstr : this.management.getManagementEventListeners()) {
@@ -547,6 +1101,12 @@ public class AssociationImpl implements Association {
         if (this.up) {
             // To avoid calling Listener again and again
             this.up = false;
+            for (AssociationGroupImpl group : this.groups)
+                group.onMemberStateChanged(this);
+
+            int oldCongLevel = this.congLevel.getAndSet(0);
+            if (oldCongLevel > 0)
+                this.fireCongestionLevelChanged(oldCongLevel, 0);
 
             for (ManagementEventListener lstr : this.management.getManagementEventListeners()) {
                 try {
@@ -556,7 +1116,7 @@ public class AssociationImpl implements Association {
                 }
             }
 
-            communicationsDown.incrementAndGet();
+            statistics.increment(AssociationStatistics.COMMUNICATIONS_DOWN);
             this.getAssociationListener().onCommunicationShutdown(this);
 
             if (this.server != null) {
@@ -565,24 +1125,35 @@ public class AssociationImpl implements Association {
         }
     }
     
+    protected void addGroup(AssociationGroupImpl group) {
+        this.groups.add(group);
+    }
+
+    protected void removeGroup(AssociationGroupImpl group) {
+        this.groups.remove(group);
+    }
+
+    protected List<AssociationGroupImpl> getGroups() {
+        return this.groups;
+    }
+
     protected void markCommunicationLost() {
-    	communicationsLost.incrementAndGet();    	 
+    	statistics.increment(AssociationStatistics.COMMUNICATIONS_LOST);    	 
     }
     
     protected void markCommunicationRestart() {
-    	communicationsRestart.incrementAndGet();    	 
+    	statistics.increment(AssociationStatistics.COMMUNICATIONS_RESTART);    	 
     }
 
     protected void scheduleConnect() {
-        int connectDelay = this.management.getConnectDelay();
+        long connectDelay = this.management.calculateConnectDelay(this.connectAttempts.getAndIncrement());
         if (logger.isDebugEnabled()) {
             logger.debug(String.format("Scheduling of a channel connection: Association=%s, connectDelay=%d", this,
                     connectDelay));
         }
 
-//        final ScheduledExecutorService loop = this.management.getBossGroup().next();
-        final ScheduledExecutorService loop = this.management.getClientExecutor();
-        loop.schedule(new Runnable() {
+        // null is returned if the management is stopped, no reconnect is needed then
+        this.management.scheduleClientTask(new Runnable() {
             @Override
             public void run() {
                 connect();
@@ -592,6 +1163,9 @@ public class AssociationImpl implements Association {
 
     protected void setChannelHandler(NettySctpChannelInboundHandlerAdapter channelHandler) {
         this.channelHandler = channelHandler;
+        // the payloads of the previous channel may be still waiting for delivery
+        if (channelHandler != null && this.inboundSuspended.get())
+            channelHandler.updateAutoRead();
     }
 
     protected void connect() {
@@ -600,17 +1174,47 @@ public class AssociationImpl implements Association {
             return;
         }
 
+        long pacingDelay = this.management.reserveConnectPermit();
+        if (pacingDelay > 0) {
+            // the management wide connect rate is exceeded, the attempt is postponed till its turn
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Connection attempt postponed: Association=%s, delay=%d ms", this,
+                        TimeUnit.NANOSECONDS.toMillis(pacingDelay)));
+            }
+            this.management.scheduleClientTask(new Runnable() {
+                @Override
+                public void run() {
+                    initiateConnect();
+                }
+            }, pacingDelay, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        this.initiateConnect();
+    }
+
+    private void initiateConnect() {
+        if (!this.started || this.up) {
+            // return if not started or already up
+            return;
+        }
+
         if (logger.isDebugEnabled()) {
             logger.debug(String.format("Initiating connection started: Association=%s", this));
         }
 
         Bootstrap b;
         InetSocketAddress localAddress;
+        InetSocketAddress remoteAddress;
+        InetAddress[] secondaryAddresses = null;
         try {
-            EventLoopGroup group = this.management.getBossGroup();
+            EventLoopGroup group = this.management.getBossGroup(this.ipChannelType);
             b = new Bootstrap();
 
             b.group(group);
+            b.option(ChannelOption.WRITE_BUFFER_WATER_MARK, this.management.getCongestionWatermark());
+            // the connect timeout is scheduled on the management timer instead of the event loop
+            b.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 0);
             if (this.ipChannelType == IpChannelType.SCTP) {
                 b.channel(NioSctpChannel.class);
 
@@ -618,52 +1222,30 @@ public class AssociationImpl implements Association {
                 this.applySctpOptions(b);
 
                 b.handler(new NettySctpClientChannelInitializer(this));
+
+                if (this.extraHostAddresses != null) {
+                    secondaryAddresses = new InetAddress[this.extraHostAddresses.length];
+                    for (int count = 0; count < this.extraHostAddresses.length; count++) {
+                        secondaryAddresses[count] = InetAddress.getByName(this.extraHostAddresses[count]);
+                    }
+                }
             } else {
-                b.channel(NioSocketChannel.class);
+                b.channel(this.management.getTcpChannelClass());
                 b.option(ChannelOption.TCP_NODELAY, true);
                 b.handler(new NettyTcpClientChannelInitializer(this));
             }
 
             localAddress = new InetSocketAddress(this.hostAddress, this.hostPort);
+            remoteAddress = new InetSocketAddress(this.peerAddress, this.peerPort);
         } catch (Exception e) {
             logger.error(String.format("Exception while creating connection for Association=%s", this.getName()), e);
             this.scheduleConnect();
             return;
         }
 
-        // Bind the client channel.
-        try {
-            ChannelFuture bindFuture = b.bind(localAddress).sync();
-            Channel channel = bindFuture.channel();
-
-            if (this.ipChannelType == IpChannelType.SCTP) {
-                // Get the underlying sctp channel
-                SctpChannel sctpChannel = (SctpChannel) channel;
-
-                // Bind the secondary address.
-                // Please note that, bindAddress in the client channel should be done before connecting if you have not
-                // enable Dynamic Address Configuration. See net.sctp.addip_enable kernel param
-                if (this.extraHostAddresses != null) {
-                    for (int count = 0; count < this.extraHostAddresses.length; count++) {
-                        String localSecondaryAddress = this.extraHostAddresses[count];
-                        InetAddress localSecondaryInetAddress = InetAddress.getByName(localSecondaryAddress);
-
-                        sctpChannel.bindAddress(localSecondaryInetAddress).sync();
-                    }
-                }
-            }
-
-            InetSocketAddress remoteAddress = new InetSocketAddress(this.peerAddress, this.peerPort);
-
-            // Finish connect
-            bindFuture.channel().connect(remoteAddress);
-            if (logger.isDebugEnabled()) {
-                logger.debug(String.format("Initiating connection scheduled: Association=%s remoteAddress=%s", this,
-                        remoteAddress));
-            }
-        } catch (Exception e) {
-            logger.error(String.format("Exception while finishing connection for Association=%s", this.getName()), e);
-        }
+        // Bind the client channel. The secondary addresses binding and the connect are chained to the bind completion,
+        // so the client executor is not blocked while the connection is being established
+        b.bind(localAddress).addListener(new ConnectSequence(secondaryAddresses, remoteAddress));
     }
 
     private void applySctpOptions(Bootstrap b) {
@@ -677,34 +1259,226 @@ public class AssociationImpl implements Association {
     }
 
 	public Integer getCommunicationsUp() {
-		return communicationsUp.get();
+		return getCommunicationsUpValue();
+	}
+
+	public int getCommunicationsUpValue() {
+		return (int) statistics.get(AssociationStatistics.COMMUNICATIONS_UP);
 	}
 
 	public Integer getCommunicationsDown() {
-		return communicationsDown.get();
+		return getCommunicationsDownValue();
+	}
+
+	public int getCommunicationsDownValue() {
+		return (int) statistics.get(AssociationStatistics.COMMUNICATIONS_DOWN);
 	}
 
 	public Integer getCommunicationsLost() {
-		return communicationsLost.get();
+		return getCommunicationsLostValue();
+	}
+
+	public int getCommunicationsLostValue() {
+		return (int) statistics.get(AssociationStatistics.COMMUNICATIONS_LOST);
 	}
 
 	public Integer getCommunicationsRestart() {
-		return communicationsRestart.get();
+		return getCommunicationsRestartValue();
+	}
+
+	public int getCommunicationsRestartValue() {
+		return (int) statistics.get(AssociationStatistics.COMMUNICATIONS_RESTART);
 	}
 
 	public Long getPacketsSent() {
-		return packetsSent.get();
+		return getPacketsSentValue();
+	}
+
+	public long getPacketsSentValue() {
+		return statistics.get(AssociationStatistics.PACKETS_SENT);
 	}
 
 	public Long getPacketsReceived() {
-		return packetsReceived.get();
+		return getPacketsReceivedValue();
+	}
+
+	public long getPacketsReceivedValue() {
+		return statistics.get(AssociationStatistics.PACKETS_RECEIVED);
 	}
 
 	public Long getBytesSent() {
-		return bytesSent.get();
+		return getBytesSentValue();
+	}
+
+	public long getBytesSentValue() {
+		return statistics.get(AssociationStatistics.BYTES_SENT);
 	}
 
 	public Long getBytesReceived() {
-		return bytesReceived.get();
-	}        
+		return getBytesReceivedValue();
+	}
+
+	public long getBytesReceivedValue() {
+		return statistics.get(AssociationStatistics.BYTES_RECEIVED);
+	}
+
+	public Long getPacketsDropped() {
+		return getPacketsDroppedValue();
+	}
+
+	public long getPacketsDroppedValue() {
+		return statistics.get(AssociationStatistics.PACKETS_DROPPED);
+	}
+
+	public Long getAsyncSendCompletions() {
+		return getAsyncSendCompletionsValue();
+	}
+
+	public long getAsyncSendCompletionsValue() {
+		return statistics.get(AssociationStatistics.ASYNC_SEND_COMPLETIONS);
+	}
+
+	public Long getAsyncSendCompletionTime() {
+		return getAsyncSendCompletionTimeValue();
+	}
+
+	public long getAsyncSendCompletionTimeValue() {
+		return statistics.get(AssociationStatistics.ASYNC_SEND_COMPLETION_TIME);
+	}
+
+	public LatencyHistogram getSendLatencyHistogram() {
+		if (this.management == null || !this.management.isAssociationLatencyHistogramsEnabled())
+			return null;
+
+		// the send histogram is assigned last, so the receive one is visible once it is set
+		if (this.sendLatencyHistogram == null)
+			this.createLatencyHistograms();
+		return this.sendLatencyHistogram;
+	}
+
+	public LatencyHistogram getReceiveLatencyHistogram() {
+		if (this.management == null || !this.management.isAssociationLatencyHistogramsEnabled())
+			return null;
+
+		if (this.sendLatencyHistogram == null)
+			this.createLatencyHistograms();
+		return this.receiveLatencyHistogram;
+	}
+
+    /**
+     * Binds the secondary addresses of the client channel one by one after the channel is bound and then connects it. If
+     * any step fails the channel is closed and the next connection attempt is scheduled when the channel is unregistered.
+     */
+    private class ConnectSequence implements ChannelFutureListener {
+        private final InetAddress[] secondaryAddresses;
+        private final InetSocketAddress remoteAddress;
+        private int nextSecondaryAddress;
+        private boolean connectRequested;
+        private Timeout connectTimeout;
+
+        ConnectSequence(InetAddress[] secondaryAddresses, InetSocketAddress remoteAddress) {
+            this.secondaryAddresses = secondaryAddresses;
+            this.remoteAddress = remoteAddress;
+        }
+
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            Channel channel = future.channel();
+            if (this.connectTimeout != null)
+                this.connectTimeout.cancel();
+
+            if (!future.isSuccess()) {
+                if (this.connectRequested) {
+                    logger.warn(String.format("Connection failed for Association=%s remoteAddress=%s: %s", getName(),
+                            this.remoteAddress, future.cause()));
+                } else {
+                    logger.error(String.format("Exception while finishing connection for Association=%s", getName()),
+                            future.cause());
+                }
+                channel.close();
+                return;
+            }
+
+            if (this.connectRequested)
+                return;
+
+            if (!started) {
+                channel.close();
+                return;
+            }
+
+            if (this.secondaryAddresses != null && this.nextSecondaryAddress < this.secondaryAddresses.length) {
+                // Please note that, bindAddress in the client channel should be done before connecting if you have not
+                // enable Dynamic Address Configuration. See net.sctp.addip_enable kernel param
+                InetAddress secondaryAddress = this.secondaryAddresses[this.nextSecondaryAddress++];
+                ((SctpChannel) channel).bindAddress(secondaryAddress).addListener(this);
+                return;
+            }
+
+            // Finish connect
+            this.connectRequested = true;
+            final ChannelPromise connectPromise = channel.newPromise();
+            final Channel connectChannel = channel;
+            try {
+                this.connectTimeout = management.getTimer().newTimeout(new TimerTask() {
+                    @Override
+                    public void run(Timeout timeout) {
+                        ConnectTimeoutException cause = new ConnectTimeoutException("connection timed out: "
+                                + remoteAddress);
+                        if (connectPromise.tryFailure(cause))
+                            connectChannel.close();
+                    }
+                }, management.getConnectTimeout(), TimeUnit.MILLISECONDS);
+            } catch (IllegalStateException e) {
+                // the timer is stopped, the management is stopped in the middle of the connection
+                channel.close();
+                return;
+            }
+            channel.connect(this.remoteAddress, connectPromise).addListener(this);
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Initiating connection scheduled: Association=%s remoteAddress=%s",
+                        AssociationImpl.this, this.remoteAddress));
+            }
+        }
+    }
+
+    /**
+     * Promise of sendAsync() that measures the time till the write completion. The promise is its own listener, so
+     * no objects are created per sent message except of the promise itself. In the queued send mode it is put into the
+     * send queue in place of its message
+     */
+    private class SendPromise extends SendLatencyPromise {
+        SendPromise(Channel channel, Object message) {
+            super(channel, AssociationImpl.this, null, System.nanoTime(), message);
+        }
+
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+            if (future.isSuccess()) {
+                long startTime = this.getStartTime();
+                statistics.increment(AssociationStatistics.ASYNC_SEND_COMPLETIONS);
+                statistics.add(AssociationStatistics.ASYNC_SEND_COMPLETION_TIME, System.nanoTime() - startTime);
+                if (management.isLatencyMeasured())
+                    recordSendLatency(startTime);
+            }
+        }
+    }
+
+    /**
+     * Notifies a queue aware stream selector about the write completion of a message on the stream
+     */
+    private static final class StreamSentListener implements ChannelFutureListener {
+        private final StreamSelector selector;
+        private final int streamNumber;
+
+        StreamSentListener(StreamSelector selector, int streamNumber) {
+            this.selector = selector;
+            this.streamNumber = streamNumber;
+        }
+
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+            selector.onMessageSent(streamNumber);
+        }
+    }        
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.restcomm.protocols.api.AssociationType;
+import org.restcomm.protocols.api.IpChannelType;
+
+/**
+ * Secondary indexes of the provisioned associations, so the incoming connection of a server is matched to its
+ * association and the address clashes are detected without iterating all the associations. The server associations
+ * are keyed by the server name, the peer address and the peer port, the associations with peer port 0 accept the
+ * connections from any port of the peer address. All the associations are also indexed by the peer address and port and
+ * by the host address and port. The index is updated by the management whenever the associations are added, modified
+ * or removed
+ *
+ * @author yulianoifa
+ *
+ */
+public class AssociationIndex {
+
+    private final ConcurrentHashMap<AddressKey, AssociationImpl> serverAssociations = new ConcurrentHashMap<AddressKey, AssociationImpl>();
+    private final ConcurrentHashMap<AddressKey, List<AssociationImpl>> peerAssociations = new ConcurrentHashMap<AddressKey, List<AssociationImpl>>();
+    private final ConcurrentHashMap<AddressKey, List<AssociationImpl>> hostAssociations = new ConcurrentHashMap<AddressKey, List<AssociationImpl>>();
+
+    protected synchronized void add(AssociationImpl association) {
+        if (association.getAssociationType() == AssociationType.SERVER)
+            serverAssociations.putIfAbsent(serverKey(association), association);
+        if (association.getPeerAddress() != null)
+            add(peerAssociations, new AddressKey(null, association.getPeerAddress(), association.getPeerPort()), association);
+        if (association.getHostAddress() != null)
+            add(hostAssociations, new AddressKey(null, association.getHostAddress(), association.getHostPort()), association);
+    }
+
+    protected synchronized void remove(AssociationImpl association) {
+        if (association.getAssociationType() == AssociationType.SERVER)
+            serverAssociations.remove(serverKey(association), association);
+        if (association.getPeerAddress() != null)
+            remove(peerAssociations, new AddressKey(null, association.getPeerAddress(), association.getPeerPort()),
+                    association);
+        if (association.getHostAddress() != null)
+            remove(hostAssociations, new AddressKey(null, association.getHostAddress(), association.getHostPort()),
+                    association);
+    }
+
+    /**
+     * Returns the server association provisioned for the connection from the peer address and port, the association
+     * provisioned for this port is preferred to the one that accepts any port
+     */
+    protected AssociationImpl getServerAssociation(String serverName, String peerAddress, int peerPort) {
+        AssociationImpl association = serverAssociations.get(new AddressKey(serverName, peerAddress, peerPort));
+        if (association == null && peerPort != 0)
+            association = serverAssociations.get(new AddressKey(serverName, peerAddress, 0));
+        return association;
+    }
+
+    /**
+     * Returns the server association of the server with exactly this peer address and port
+     */
+    protected AssociationImpl findServerAssociation(String serverName, String peerAddress, int peerPort) {
+        return serverAssociations.get(new AddressKey(serverName, peerAddress, peerPort));
+    }
+
+    /**
+     * Returns an association other than the excluded one with this peer address and port, the ipChannelType is not
+     * compared if null
+     */
+    protected AssociationImpl findByPeer(String peerAddress, int peerPort, IpChannelType ipChannelType,
+            AssociationImpl excluded) {
+        return find(peerAssociations, new AddressKey(null, peerAddress, peerPort), ipChannelType, excluded);
+    }
+
+    /**
+     * Returns an association other than the excluded one with this host address and port, the ipChannelType is not
+     * compared if null
+     */
+    protected AssociationImpl findByHost(String hostAddress, int hostPort, IpChannelType ipChannelType,
+            AssociationImpl excluded) {
+        return find(hostAssociations, new AddressKey(null, hostAddress, hostPort), ipChannelType, excluded);
+    }
+
+    protected synchronized void clear() {
+        serverAssociations.clear();
+        peerAssociations.clear();
+        hostAssociations.clear();
+    }
+
+    private static void add(ConcurrentHashMap<AddressKey, List<AssociationImpl>> map, AddressKey key,
+            AssociationImpl association) {
+        List<AssociationImpl> associations = map.get(key);
+        if (associations == null) {
+            associations = new CopyOnWriteArrayList<AssociationImpl>();
+            map.put(key, associations);
+        }
+        associations.add(association);
+    }
+
+    private static void remove(ConcurrentHashMap<AddressKey, List<AssociationImpl>> map, AddressKey key,
+            AssociationImpl association) {
+        List<AssociationImpl> associations = map.get(key);
+        if (associations != null) {
+            associations.remove(association);
+            if (associations.isEmpty())
+                map.remove(key);
+        }
+    }
+
+    private static AssociationImpl find(ConcurrentHashMap<AddressKey, List<AssociationImpl>> map, AddressKey key,
+            IpChannelType ipChannelType, AssociationImpl excluded) {
+        List<AssociationImpl> associations = map.get(key);
+        if (associations == null)
+            return null;
+
+        for (AssociationImpl association : associations) {
+            if (association != excluded && (ipChannelType == null || association.getIpChannelType() == ipChannelType))
+                return association;
+        }
+        return null;
+    }
+
+    private static AddressKey serverKey(AssociationImpl association) {
+        return new AddressKey(association.getServerName(), association.getPeerAddress(), association.getPeerPort());
+    }
+
+    private static final class AddressKey {
+        private final String serverName;
+        private final String address;
+        private final int port;
+        private final int hash;
+
+        AddressKey(String serverName, String address, int port) {
+            this.serverName = serverName;
+            this.address = address;
+            this.port = port;
+
+            int result = serverName != null ? serverName.hashCode() : 0;
+            result = 31 * result + (address != null ? address.hashCode() : 0);
+            this.hash = 31 * result + port;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof AddressKey))
+                return false;
+
+            AddressKey other = (AddressKey) obj;
+            return port == other.port && equals(serverName, other.serverName) && equals(address, other.address);
+        }
+
+        private static boolean equals(String first, String second) {
+            return first == null ? second == null : first.equals(second);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics counters of an association. All the counters are kept in one atomic long array instead of a separate
+ * atomic object per counter. The packets and bytes sent and received are updated by every sending thread and by the
+ * event loop: the first time an update of one of them fails on contention, striped LongAdder counters are created for
+ * them and take the further updates, the value of such a counter is then the sum of both.
+ *
+ * With compressed oops an association that never sees contended updates takes 148 bytes for its statistics: the
+ * reference to them (4), this object (24), the AtomicLongArray (16) and its long[] (16 + 11 * 8). The separate counters
+ * took 276 bytes with AtomicLong (4 x 16 for AtomicInteger, 7 x 24 for AtomicLong and 11 references). A contended
+ * association adds the LongAdder array (16 + 4 * 4) and 4 LongAdder (4 x 32), 308 bytes in total, and each contended
+ * LongAdder grows by a cell array and a cache line padded cell per stripe.
+ *
+ * @author yulianoifa
+ *
+ */
+final class AssociationStatistics {
+
+    // the counters that are striped once contended
+    static final int PACKETS_SENT = 0;
+    static final int PACKETS_RECEIVED = 1;
+    static final int BYTES_SENT = 2;
+    static final int BYTES_RECEIVED = 3;
+    // the rarely updated counters
+    static final int COMMUNICATIONS_UP = 4;
+    static final int COMMUNICATIONS_DOWN = 5;
+    static final int COMMUNICATIONS_LOST = 6;
+    static final int COMMUNICATIONS_RESTART = 7;
+    static final int PACKETS_DROPPED = 8;
+    static final int ASYNC_SEND_COMPLETIONS = 9;
+    static final int ASYNC_SEND_COMPLETION_TIME = 10;
+
+    static final int COUNTERS = 11;
+    private static final int STRIPED_COUNTERS = 4;
+
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTERS);
+    // null until an update of a striped counter is contended
+    private volatile LongAdder[] stripedCounters;
+
+    void increment(int counter) {
+        add(counter, 1);
+    }
+
+    void add(int counter, long delta) {
+        if (counter >= STRIPED_COUNTERS) {
+            counters.addAndGet(counter, delta);
+            return;
+        }
+
+        LongAdder[] striped = stripedCounters;
+        if (striped == null) {
+            long value = counters.get(counter);
+            if (counters.compareAndSet(counter, value, value + delta))
+                return;
+            striped = stripe();
+        }
+        striped[counter].add(delta);
+    }
+
+    long get(int counter) {
+        long value = counters.get(counter);
+        LongAdder[] striped = stripedCounters;
+        if (striped != null && counter < STRIPED_COUNTERS)
+            value += striped[counter].sum();
+        return value;
+    }
+
+    private synchronized LongAdder[] stripe() {
+        LongAdder[] striped = stripedCounters;
+        if (striped == null) {
+            striped = new LongAdder[STRIPED_COUNTERS];
+            for (int i = 0; i < STRIPED_COUNTERS; i++)
+                striped[i] = new LongAdder();
+            stripedCounters = striped;
+        }
+        return striped;
+    }
+}
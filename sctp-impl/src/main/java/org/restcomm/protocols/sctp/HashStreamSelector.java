@@ -0,0 +1,72 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.function.ToIntFunction;
+
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.StreamSelector;
+
+/**
+ * Chooses the stream by the hash of a key that is extracted from the sent data by a caller supplied function, for
+ * example a dialog or a circuit identifier. The data with the same key is always sent on the same stream while the
+ * count of outbound streams does not change, so its order is kept. Streams below firstStream are used only if the
+ * association has no other streams
+ *
+ * @author yulianoifa
+ *
+ */
+public class HashStreamSelector implements StreamSelector {
+
+    private final ToIntFunction<PayloadData> keyFunction;
+    private final int firstStream;
+
+    public HashStreamSelector(ToIntFunction<PayloadData> keyFunction) {
+        this(keyFunction, 0);
+    }
+
+    public HashStreamSelector(ToIntFunction<PayloadData> keyFunction, int firstStream) {
+        if (keyFunction == null)
+            throw new IllegalArgumentException("Key function cannot be null");
+        if (firstStream < 0)
+            throw new IllegalArgumentException("First stream cannot be less than 0");
+
+        this.keyFunction = keyFunction;
+        this.firstStream = firstStream;
+    }
+
+    public int getFirstStream() {
+        return firstStream;
+    }
+
+    @Override
+    public int selectStream(PayloadData payloadData, int maxOutboundStreams) {
+        int streams = maxOutboundStreams - firstStream;
+        if (streams <= 0)
+            return maxOutboundStreams - 1;
+
+        int hash = keyFunction.applyAsInt(payloadData);
+        // spreading the high bits, keys are often sequential or aligned numbers
+        hash ^= (hash >>> 16);
+        return firstStream + Math.floorMod(hash, streams);
+    }
+}
@@ -0,0 +1,317 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.restcomm.protocols.api.PayloadData;
+
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.RejectedExecutionHandler;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+/**
+ * Delivers the received payloads to the association listeners on a pool of single threaded executors instead of the
+ * netty worker threads. The executor is chosen by the hash of the association and the stream number, so the payloads of
+ * one stream are delivered in order while the different streams and associations are processed in parallel. Each
+ * executor has a bounded queue, the payloads that do not fit are dropped and counted. The count of payloads that wait
+ * for delivery is tracked per association to suspend the reading from its channel when the listener falls behind
+ *
+ * @author yulianoifa
+ *
+ */
+public class InboundDispatcher {
+
+    protected static final Logger logger = LogManager.getLogger(InboundDispatcher.class.getName());
+
+    // the drops of the full queues are logged at most once per this interval
+    private static final long REJECTED_WARNING_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final SctpManagementImpl management;
+    private final DefaultEventExecutorGroup group;
+    private final EventExecutor[] executors;
+
+    private final AtomicLong nextRejectedWarningTime = new AtomicLong(System.nanoTime());
+    private final AtomicLong rejectedSinceWarning = new AtomicLong(0);
+
+    // the tasks dispatched while the replaced dispatcher still delivers its queued payloads, they are passed to the
+    // executors once it has terminated. Guarded by this dispatcher, null when nothing is held
+    private List<HeldTask> heldTasks;
+    private volatile boolean held;
+    // the shutdown requested while the tasks are held, the executors are shut down once the tasks are released
+    private boolean shutdownDeferred;
+
+    public InboundDispatcher(SctpManagementImpl management, int threads, int queueSize) {
+        this.management = management;
+        this.group = new DefaultEventExecutorGroup(threads, new DefaultThreadFactory("Sctp-InboundDispatch-"
+                + management.getName()), queueSize, new DispatchRejectedHandler());
+
+        this.executors = new EventExecutor[threads];
+        int i = 0;
+        for (EventExecutor executor : this.group)
+            this.executors[i++] = executor;
+    }
+
+    protected void dispatch(AssociationImpl association, PayloadData payload, long readTime) {
+        int hash = association.getName().hashCode() * 31 + payload.getStreamNumber();
+        hash ^= (hash >>> 16);
+        EventExecutor executor = this.executors[Math.floorMod(hash, this.executors.length)];
+        association.onInboundQueued(1);
+        try {
+            this.execute(executor, new DispatchTask(association, payload, readTime));
+        } catch (RejectedExecutionException e) {
+            association.onInboundDelivered(1);
+            InboundDispatcher current = management.getInboundDispatcher();
+            if (current != null && current != this) {
+                // the dispatcher has been replaced, the new one delivers after this one has finished
+                current.dispatch(association, payload, readTime);
+            } else {
+                // the dispatcher is stopped, delivering in the current thread
+                association.deliver(payload, readTime);
+            }
+        }
+    }
+
+    /**
+     * Dispatches the payloads of one read cycle for the batch listener, the executor is chosen by the association only
+     * since the batch contains the payloads of all the streams
+     */
+    protected void dispatch(AssociationImpl association, List<PayloadData> payloads, long readTime) {
+        int hash = association.getName().hashCode();
+        hash ^= (hash >>> 16);
+        EventExecutor executor = this.executors[Math.floorMod(hash, this.executors.length)];
+        int count = payloads.size();
+        association.onInboundQueued(count);
+        try {
+            this.execute(executor, new BatchDispatchTask(association, payloads, readTime));
+        } catch (RejectedExecutionException e) {
+            association.onInboundDelivered(count);
+            InboundDispatcher current = management.getInboundDispatcher();
+            if (current != null && current != this) {
+                // the dispatcher has been replaced, the new one delivers after this one has finished
+                current.dispatch(association, payloads, readTime);
+            } else {
+                // the dispatcher is stopped, delivering in the current thread
+                association.deliver(payloads, readTime);
+            }
+        }
+    }
+
+    private void execute(EventExecutor executor, Runnable task) {
+        if (this.held) {
+            synchronized (this) {
+                if (this.heldTasks != null) {
+                    this.heldTasks.add(new HeldTask(executor, task));
+                    return;
+                }
+            }
+        }
+        executor.execute(task);
+    }
+
+    private void updateWaitStatistics(long queuedTime, int count) {
+        long waitTime = System.nanoTime() - queuedTime;
+        management.inboundDispatched.addAndGet(count);
+        management.inboundDispatchWaitTime.addAndGet(waitTime * count);
+        long maxWaitTime;
+        while (waitTime > (maxWaitTime = management.inboundDispatchMaxWaitTime.get())) {
+            if (management.inboundDispatchMaxWaitTime.compareAndSet(maxWaitTime, waitTime))
+                break;
+        }
+    }
+
+    /**
+     * Returns the count of payloads waiting for delivery in all the executors
+     */
+    protected int getQueueDepth() {
+        int depth = 0;
+        for (EventExecutor executor : this.executors)
+            depth += ((SingleThreadEventExecutor) executor).pendingTasks();
+        if (this.held) {
+            synchronized (this) {
+                if (this.heldTasks != null)
+                    depth += this.heldTasks.size();
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Stops the previous dispatcher and holds the delivery of this one till the previous has delivered all the payloads
+     * queued in it, so the payloads of each stream keep their order when the dispatcher is replaced. No thread waits for
+     * the previous dispatcher, the held payloads are passed to the executors by the listener of its termination. Must be
+     * invoked before this dispatcher is used
+     */
+    protected void replace(InboundDispatcher previous) {
+        Future<?> termination = previous.shutdownGracefully();
+        synchronized (this) {
+            this.heldTasks = new ArrayList<HeldTask>();
+            this.held = true;
+        }
+
+        termination.addListener(new GenericFutureListener<Future<Object>>() {
+            @Override
+            public void operationComplete(Future<Object> future) {
+                releaseHeldTasks();
+            }
+        });
+    }
+
+    private synchronized void releaseHeldTasks() {
+        for (HeldTask heldTask : this.heldTasks) {
+            try {
+                heldTask.executor.execute(heldTask.task);
+            } catch (RejectedExecutionException e) {
+                // the executor is shut down, delivering in the current thread
+                heldTask.task.run();
+            }
+        }
+        this.heldTasks = null;
+        this.held = false;
+
+        if (this.shutdownDeferred)
+            this.group.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+    }
+
+    private void warnRejected(AssociationImpl association, int count) {
+        rejectedSinceWarning.addAndGet(count);
+        long now = System.nanoTime();
+        long next = nextRejectedWarningTime.get();
+        if (now - next >= 0 && nextRejectedWarningTime.compareAndSet(next, now + REJECTED_WARNING_INTERVAL)) {
+            logger.warn(String.format(
+                    "Rx dropped %d payloads since the last warning, inbound dispatch queue is full : last Ass=%s",
+                    rejectedSinceWarning.getAndSet(0), association.getName()));
+        }
+    }
+
+    /**
+     * Stops the executors after delivering the already queued payloads
+     */
+    protected Future<?> shutdownGracefully() {
+        synchronized (this) {
+            if (this.heldTasks != null) {
+                // the held tasks are delivered before the tasks of the dispatcher that replaces this one
+                this.shutdownDeferred = true;
+                return this.group.terminationFuture();
+            }
+        }
+        return this.group.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+    }
+
+    private static final class HeldTask {
+        private final EventExecutor executor;
+        private final Runnable task;
+
+        HeldTask(EventExecutor executor, Runnable task) {
+            this.executor = executor;
+            this.task = task;
+        }
+    }
+
+    private final class DispatchTask implements Runnable {
+        private final AssociationImpl association;
+        private final PayloadData payload;
+        private final long readTime;
+        private final long queuedTime;
+
+        DispatchTask(AssociationImpl association, PayloadData payload, long readTime) {
+            this.association = association;
+            this.payload = payload;
+            this.readTime = readTime;
+            this.queuedTime = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            updateWaitStatistics(queuedTime, 1);
+            try {
+                association.deliver(payload, readTime);
+            } finally {
+                association.onInboundDelivered(1);
+            }
+        }
+    }
+
+    private final class BatchDispatchTask implements Runnable {
+        private final AssociationImpl association;
+        private final List<PayloadData> payloads;
+        private final long readTime;
+        private final long queuedTime;
+
+        BatchDispatchTask(AssociationImpl association, List<PayloadData> payloads, long readTime) {
+            this.association = association;
+            this.payloads = payloads;
+            this.readTime = readTime;
+            this.queuedTime = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            int count = payloads.size();
+            updateWaitStatistics(queuedTime, count);
+            try {
+                association.deliver(payloads, readTime);
+            } finally {
+                association.onInboundDelivered(count);
+            }
+        }
+    }
+
+    private final class DispatchRejectedHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejected(Runnable task, SingleThreadEventExecutor executor) {
+            // the queue of executor is full or it is shut down
+            if (task instanceof DispatchTask) {
+                DispatchTask dispatchTask = (DispatchTask) task;
+                management.inboundDispatchRejected.incrementAndGet();
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format("Rx dropped, inbound dispatch queue is full : Ass=%s %s",
+                            dispatchTask.association.getName(), dispatchTask.payload));
+                }
+                warnRejected(dispatchTask.association, 1);
+                dispatchTask.payload.releaseBuffer();
+                dispatchTask.association.onInboundDelivered(1);
+            } else if (task instanceof BatchDispatchTask) {
+                BatchDispatchTask dispatchTask = (BatchDispatchTask) task;
+                management.inboundDispatchRejected.addAndGet(dispatchTask.payloads.size());
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format("Rx dropped %d payloads, inbound dispatch queue is full : Ass=%s",
+                            dispatchTask.payloads.size(), dispatchTask.association.getName()));
+                }
+                warnRejected(dispatchTask.association, dispatchTask.payloads.size());
+                for (PayloadData payload : dispatchTask.payloads)
+                    payload.releaseBuffer();
+                dispatchTask.association.onInboundDelivered(dispatchTask.payloads.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.StreamSelector;
+
+/**
+ * Chooses the stream with the least count of messages that are accepted for sending but not yet written to the
+ * socket, so a stream that is blocked by a big or retransmitted message does not delay the other data. Streams below
+ * firstStream are used only if the association has no other streams. One instance must be used for one association only
+ *
+ * @author yulianoifa
+ *
+ */
+public class LeastQueuedStreamSelector implements StreamSelector {
+
+    private final int firstStream;
+    // rotating start of the search, so the streams with equal counts are used evenly
+    private final AtomicInteger offset = new AtomicInteger(0);
+    private volatile AtomicIntegerArray queued = new AtomicIntegerArray(0);
+
+    public LeastQueuedStreamSelector() {
+        this(0);
+    }
+
+    public LeastQueuedStreamSelector(int firstStream) {
+        if (firstStream < 0)
+            throw new IllegalArgumentException("First stream cannot be less than 0");
+
+        this.firstStream = firstStream;
+    }
+
+    public int getFirstStream() {
+        return firstStream;
+    }
+
+    /**
+     * Returns the count of messages queued for the stream
+     *
+     * @param streamNumber
+     * @return
+     */
+    public int getQueuedCount(int streamNumber) {
+        AtomicIntegerArray counters = this.queued;
+        if (streamNumber < 0 || streamNumber >= counters.length())
+            return 0;
+
+        return counters.get(streamNumber);
+    }
+
+    @Override
+    public int selectStream(PayloadData payloadData, int maxOutboundStreams) {
+        int streams = maxOutboundStreams - firstStream;
+        if (streams <= 0)
+            return maxOutboundStreams - 1;
+
+        AtomicIntegerArray counters = getCounters(maxOutboundStreams);
+        int start = (offset.getAndIncrement() & Integer.MAX_VALUE) % streams;
+        int bestStream = firstStream + start;
+        int bestCount = Integer.MAX_VALUE;
+        for (int i = 0; i < streams; i++) {
+            int streamNumber = firstStream + (start + i) % streams;
+            int count = counters.get(streamNumber);
+            if (count < bestCount) {
+                bestStream = streamNumber;
+                bestCount = count;
+                if (count <= 0)
+                    break;
+            }
+        }
+
+        return bestStream;
+    }
+
+    @Override
+    public boolean isQueueAware() {
+        return true;
+    }
+
+    @Override
+    public void onMessageQueued(int streamNumber) {
+        AtomicIntegerArray counters = this.queued;
+        if (streamNumber < counters.length())
+            counters.incrementAndGet(streamNumber);
+    }
+
+    @Override
+    public void onMessageSent(int streamNumber) {
+        AtomicIntegerArray counters = this.queued;
+        if (streamNumber < counters.length())
+            counters.decrementAndGet(streamNumber);
+    }
+
+    private AtomicIntegerArray getCounters(int maxOutboundStreams) {
+        AtomicIntegerArray counters = this.queued;
+        if (counters.length() >= maxOutboundStreams)
+            return counters;
+
+        synchronized (this) {
+            counters = this.queued;
+            if (counters.length() < maxOutboundStreams) {
+                // the count of streams grows only after the association restart, the updates that happen while
+                // copying can be lost, they only affect the balance for the messages in flight
+                AtomicIntegerArray newCounters = new AtomicIntegerArray(maxOutboundStreams);
+                for (int i = 0; i < counters.length(); i++)
+                    newCounters.set(i, counters.get(i));
+                this.queued = newCounters;
+                counters = newCounters;
+            }
+        }
+
+        return counters;
+    }
+}
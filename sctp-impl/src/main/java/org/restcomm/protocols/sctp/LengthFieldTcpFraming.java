@@ -0,0 +1,113 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import org.restcomm.protocols.api.TcpFraming;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+
+/**
+ * Framing of messages that carry their length in a header field. The message length is the value of the unsigned big
+ * endian field of lengthFieldLength (1, 2, 3 or 4) bytes at lengthFieldOffset plus lengthAdjustment, for example the
+ * length of the header if the field counts the body only
+ *
+ * @author yulianoifa
+ *
+ */
+public class LengthFieldTcpFraming implements TcpFraming {
+
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 1024 * 1024;
+
+    private final int lengthFieldOffset;
+    private final int lengthFieldLength;
+    private final int lengthAdjustment;
+    private final int maxFrameLength;
+
+    public LengthFieldTcpFraming(int lengthFieldOffset, int lengthFieldLength, int lengthAdjustment) {
+        this(lengthFieldOffset, lengthFieldLength, lengthAdjustment, DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    public LengthFieldTcpFraming(int lengthFieldOffset, int lengthFieldLength, int lengthAdjustment, int maxFrameLength) {
+        if (lengthFieldOffset < 0)
+            throw new IllegalArgumentException("Length field offset cannot be less than 0");
+        if (lengthFieldLength < 1 || lengthFieldLength > 4)
+            throw new IllegalArgumentException("Length field length must be from 1 to 4");
+        if (maxFrameLength < 1)
+            throw new IllegalArgumentException("Max frame length cannot be less than 1");
+
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.lengthAdjustment = lengthAdjustment;
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    public int getLengthFieldOffset() {
+        return lengthFieldOffset;
+    }
+
+    public int getLengthFieldLength() {
+        return lengthFieldLength;
+    }
+
+    public int getLengthAdjustment() {
+        return lengthAdjustment;
+    }
+
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    @Override
+    public int getFrameLength(ByteBuf buffer) throws Exception {
+        int headerLength = lengthFieldOffset + lengthFieldLength;
+        if (buffer.readableBytes() < headerLength)
+            return -1;
+
+        int index = buffer.readerIndex() + lengthFieldOffset;
+        long length;
+        switch (lengthFieldLength) {
+            case 1:
+                length = buffer.getUnsignedByte(index);
+                break;
+            case 2:
+                length = buffer.getUnsignedShort(index);
+                break;
+            case 3:
+                length = buffer.getUnsignedMedium(index);
+                break;
+            default:
+                length = buffer.getUnsignedInt(index);
+                break;
+        }
+
+        long frameLength = length + lengthAdjustment;
+        if (frameLength < headerLength)
+            throw new CorruptedFrameException(String.format("Frame length %d is less than the header length %d",
+                    frameLength, headerLength));
+        if (frameLength > maxFrameLength)
+            throw new TooLongFrameException(String.format("Frame length %d exceeds %d", frameLength, maxFrameLength));
+
+        return (int) frameLength;
+    }
+}
@@ -0,0 +1,43 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+/**
+ * Framing of M3UA (RFC 4666) and SUA (RFC 3868) messages: the common header contains version, reserved, message class
+ * and message type octets followed by the 32 bit message length that includes the common header
+ *
+ * @author yulianoifa
+ *
+ */
+public class M3uaTcpFraming extends LengthFieldTcpFraming {
+
+    private static final int COMMON_HEADER_LENGTH_OFFSET = 4;
+    private static final int COMMON_HEADER_LENGTH_SIZE = 4;
+
+    public M3uaTcpFraming() {
+        this(DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    public M3uaTcpFraming(int maxFrameLength) {
+        super(COMMON_HEADER_LENGTH_OFFSET, COMMON_HEADER_LENGTH_SIZE, 0, maxFrameLength);
+    }
+}
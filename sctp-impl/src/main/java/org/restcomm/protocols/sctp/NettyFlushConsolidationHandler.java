@@ -0,0 +1,76 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.flush.FlushConsolidationHandler;
+
+/**
+ * Netty {@link FlushConsolidationHandler} that counts the flush requests of the association channels. The flushes that
+ * are really performed are counted by a handler placed in front of it, use {@link #addLast(ChannelPipeline,
+ * SctpManagementImpl)} to add both. The consolidation is applied also outside of a read cycle, the flush is forced after
+ * the configured count of consolidated flush requests
+ *
+ * @author yulianoifa
+ *
+ */
+public class NettyFlushConsolidationHandler extends FlushConsolidationHandler {
+
+    private final SctpManagementImpl management;
+
+    public NettyFlushConsolidationHandler(SctpManagementImpl management) {
+        super(management.getFlushConsolidationMaxPendingWrites(), true);
+        this.management = management;
+    }
+
+    /**
+     * Adds the flush consolidation with its counters to the end of the pipeline
+     */
+    public static void addLast(ChannelPipeline pipeline, SctpManagementImpl management) {
+        pipeline.addLast(new PerformedFlushCounter(management), new NettyFlushConsolidationHandler(management));
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        management.flushRequests.incrementAndGet();
+        super.flush(ctx);
+    }
+
+    /**
+     * Counts the flushes that pass the consolidation
+     */
+    private static final class PerformedFlushCounter extends ChannelOutboundHandlerAdapter {
+        private final SctpManagementImpl management;
+
+        PerformedFlushCounter(SctpManagementImpl management) {
+            this.management = management;
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            management.performedFlushes.incrementAndGet();
+            ctx.flush();
+        }
+    }
+}
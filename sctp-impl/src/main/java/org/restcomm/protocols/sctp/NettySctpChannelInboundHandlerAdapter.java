@@ -22,8 +22,17 @@ package org.restcomm.protocols.sctp;
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.restcomm.protocols.api.AssociationBatchListener;
 import org.restcomm.protocols.api.IpChannelType;
 import org.restcomm.protocols.api.PayloadData;
 
@@ -33,10 +42,16 @@ import com.sun.nio.sctp.SendFailedNotification;
 import com.sun.nio.sctp.ShutdownNotification;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.sctp.SctpMessage;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.internal.PlatformDependent;
 
 /**
  * @author <a href="mailto:amit.bhayani@telestax.com">Amit Bhayani</a>
@@ -56,7 +71,54 @@ public class NettySctpChannelInboundHandlerAdapter extends ChannelInboundHandler
     protected Channel channel = null;
     protected ChannelHandlerContext ctx = null;
 
-    protected long lastCongestionMonitorSecondPart;
+    // while an association is congested its queue is rechecked with this interval, so the congestion level goes
+    // down even if nothing is sent
+    protected static final long CONGESTION_MONITOR_INTERVAL = 100;
+
+    // maximum count of messages that are written from the send queue before the flush and the next drain iteration
+    protected static final int SEND_QUEUE_DRAIN_LIMIT = 1024;
+
+    // while the channel is drained before the close its outbound buffer is rechecked with this interval
+    protected static final long DRAIN_CHECK_INTERVAL = 10;
+
+    // messages sent in queued mode by application threads, drained by the channel event loop
+    private final Queue<Object> sendQueue = PlatformDependent.newMpscQueue();
+    private final AtomicBoolean sendQueueDrainScheduled = new AtomicBoolean(false);
+    private final Runnable sendQueueDrainTask = new Runnable() {
+        @Override
+        public void run() {
+            drainSendQueue();
+        }
+    };
+
+    // messages and bytes written by the application since its last flush, counted by the drain of a stopped association
+    private final AtomicLong unflushedMessages = new AtomicLong();
+    private final AtomicLong unflushedBytes = new AtomicLong();
+
+    // payloads of the current read cycle for the batch listener, accessed by the event loop only
+    private List<PayloadData> readPayloads = new ArrayList<PayloadData>();
+    // start of the current read cycle for the receive latency, 0 if the latency is not recorded
+    private long readCycleTime = 0;
+
+    // applies the inbound flow control state of the association to the channel, executed by the channel event loop
+    private final Runnable autoReadTask = new Runnable() {
+        @Override
+        public void run() {
+            Channel ch = channel;
+            AssociationImpl association = NettySctpChannelInboundHandlerAdapter.this.association;
+            if (ch != null && association != null)
+                ch.config().setAutoRead(!association.isInboundSuspended());
+        }
+    };
+
+    private final AtomicBoolean congestionMonitorScheduled = new AtomicBoolean(false);
+    private final Runnable congestionMonitorTask = new Runnable() {
+        @Override
+        public void run() {
+            congestionMonitorScheduled.set(false);
+            checkCongestion();
+        }
+    };
 
     /**
      * 
@@ -71,8 +133,19 @@ public class NettySctpChannelInboundHandlerAdapter extends ChannelInboundHandler
             logger.debug(String.format("channelInactive event: association=%s", this.association));
         }
 
-        if (this.association != null)
+        if (this.association != null) {
+            this.deliverReadPayloads();
             this.association.markAssociationDown();
+        }
+
+        // messages that are still queued will never be written
+        this.releaseSendQueue();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        this.checkCongestion();
+        ctx.fireChannelWritabilityChanged();
     }
 
     @Override
@@ -175,6 +248,7 @@ public class NettySctpChannelInboundHandlerAdapter extends ChannelInboundHandler
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) {
         // try {
+        long readTime = this.association.getLatencyStartTime();
         PayloadData payload;
         if (this.association.getIpChannelType() == IpChannelType.SCTP) {
             SctpMessage sctpMessage = (SctpMessage) msg;
@@ -190,12 +264,40 @@ public class NettySctpChannelInboundHandlerAdapter extends ChannelInboundHandler
             logger.debug(String.format("Rx : Ass=%s %s", this.association.getName(), payload));
         }
 
-        this.association.read(payload);
+        if (this.association.getAssociationListener() instanceof AssociationBatchListener) {
+            if (this.readPayloads.isEmpty())
+                this.readCycleTime = readTime;
+            this.readPayloads.add(payload);
+        } else
+            this.association.read(payload, readTime);
         // } finally {
         // ReferenceCountUtil.release(msg);
         // }
     }
 
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        this.deliverReadPayloads();
+        ctx.fireChannelReadComplete();
+    }
+
+    private void deliverReadPayloads() {
+        List<PayloadData> payloads = this.readPayloads;
+        if (payloads.isEmpty())
+            return;
+
+        if (this.association.read(payloads, this.readCycleTime)) {
+            // the list is handed over to the inbound dispatcher
+            this.readPayloads = new ArrayList<PayloadData>();
+        } else {
+            payloads.clear();
+        }
+    }
+
+    protected int getMaxOutboundStreams() {
+        return maxOutboundStreams;
+    }
+
     protected void writeAndFlush(Object message) {
         Channel ch = this.channel;
         if (ch != null) {
@@ -203,16 +305,367 @@ public class NettySctpChannelInboundHandlerAdapter extends ChannelInboundHandler
         }
      }
 
-    protected void closeChannel() {
+    protected void writeAndFlush(Object message, ChannelFutureListener listener) {
+        if (listener == null) {
+            this.writeAndFlush(message);
+            return;
+        }
+
+        Channel ch = this.channel;
+        if (ch != null) {
+            ch.writeAndFlush(message).addListener(listener);
+        }
+    }
+
+    /**
+     * Writes and flushes the message with a promise that records the send latency from the start time, the start time
+     * is 0 if the latencies are not measured
+     */
+    protected void writeAndFlush(Object message, ChannelFutureListener listener, long startTime) {
+        if (startTime == 0) {
+            this.writeAndFlush(message, listener);
+            return;
+        }
+
+        Channel ch = this.channel;
+        if (ch != null) {
+            ch.writeAndFlush(message, new SendLatencyPromise(ch, this.association, listener, startTime, null));
+        }
+    }
+
+    /**
+     * Suspends or resumes the reading from the channel as required by the inbound flow control of the association. While
+     * the reading is suspended the kernel receive buffer fills up and the peer is slowed down by the transport
+     */
+    protected void updateAutoRead() {
+        Channel ch = this.channel;
+        if (ch == null)
+            return;
+
+        if (ch.eventLoop().inEventLoop()) {
+            autoReadTask.run();
+        } else {
+            try {
+                ch.eventLoop().execute(autoReadTask);
+            } catch (RejectedExecutionException e) {
+                // the event loop is shut down, nothing to read anymore
+            }
+        }
+    }
+
+    /**
+     * Puts the message into the send queue of the channel. The queue is drained by the channel event loop that writes
+     * all the queued messages and flushes them once per drain, so there is no event loop task per message
+     */
+    protected void enqueue(Object message) {
+        Channel ch = this.channel;
+        if (ch == null) {
+            releaseQueued(message);
+            return;
+        }
+
+        sendQueue.offer(message);
+        if (sendQueueDrainScheduled.compareAndSet(false, true)) {
+            this.scheduleSendQueueDrain(ch);
+        }
+    }
+
+    /**
+     * Puts the message into the send queue with a promise that records the send latency from the start time, the start
+     * time is 0 if the latencies are not measured
+     */
+    protected void enqueue(Object message, long startTime) {
+        Channel ch = this.channel;
+        if (startTime == 0 || ch == null) {
+            this.enqueue(message);
+            return;
+        }
+
+        this.enqueue(new SendLatencyPromise(ch, this.association, null, startTime, message));
+    }
+
+    private void scheduleSendQueueDrain(Channel ch) {
+        try {
+            ch.eventLoop().execute(sendQueueDrainTask);
+        } catch (RejectedExecutionException e) {
+            // the event loop is shut down, nothing drains the queue anymore
+            this.releaseSendQueue();
+        }
+    }
+
+    private void drainSendQueue() {
+        Channel ch = this.channel;
+        boolean active = ch != null && ch.isActive();
+
+        int count = 0;
+        Object message;
+        while (count < SEND_QUEUE_DRAIN_LIMIT && (message = sendQueue.poll()) != null) {
+            if (active)
+                writeQueued(ch, message);
+            else
+                releaseQueued(message);
+            count++;
+        }
+
+        if (active && count > 0) {
+            ch.flush();
+            this.checkCongestion();
+        }
+
+        sendQueueDrainScheduled.set(false);
+        if (!sendQueue.isEmpty() && sendQueueDrainScheduled.compareAndSet(false, true)) {
+            if (ch != null)
+                this.scheduleSendQueueDrain(ch);
+            else
+                this.releaseSendQueue();
+        }
+    }
+
+    private void releaseSendQueue() {
+        Object message;
+        while ((message = sendQueue.poll()) != null)
+            releaseQueued(message);
+        sendQueueDrainScheduled.set(false);
+    }
+
+    /**
+     * Writes the message taken from the send queue, a queued latency promise is the promise of the write of its message
+     */
+    private static void writeQueued(Channel ch, Object message) {
+        if (message instanceof SendLatencyPromise) {
+            SendLatencyPromise promise = (SendLatencyPromise) message;
+            ch.write(promise.getMessage(), promise);
+        } else {
+            ch.write(message, ch.voidPromise());
+        }
+    }
+
+    private static void releaseQueued(Object message) {
+        if (message instanceof SendLatencyPromise) {
+            SendLatencyPromise promise = (SendLatencyPromise) message;
+            message = promise.getMessage();
+            promise.tryFailure(AssociationImpl.ASSOCIATION_DOWN_EXCEPTION);
+        }
+        ReferenceCountUtil.release(message);
+    }
+
+    protected void write(Object message) {
         Channel ch = this.channel;
         if (ch != null) {
+            this.countUnflushed(message);
+            ch.write(message);
+        }
+    }
+
+    protected void write(Object message, ChannelFutureListener listener) {
+        if (listener == null) {
+            this.write(message);
+            return;
+        }
+
+        Channel ch = this.channel;
+        if (ch != null) {
+            this.countUnflushed(message);
+            ch.write(message).addListener(listener);
+        }
+    }
+
+    /**
+     * Writes the message with a promise that records the send latency from the start time, the start time is 0 if the
+     * latencies are not measured
+     */
+    protected void write(Object message, ChannelFutureListener listener, long startTime) {
+        if (startTime == 0) {
+            this.write(message, listener);
+            return;
+        }
+
+        Channel ch = this.channel;
+        if (ch != null) {
+            this.countUnflushed(message);
+            ch.write(message, new SendLatencyPromise(ch, this.association, listener, startTime, null));
+        }
+    }
+
+    protected void flush() {
+        Channel ch = this.channel;
+        if (ch != null) {
+            unflushedMessages.set(0);
+            unflushedBytes.set(0);
+            ch.flush();
+        }
+    }
+
+    /**
+     * Counts a message written without a flush, the drain of a stopped association cannot see it in the outbound buffer
+     * before the buffer is flushed
+     */
+    private void countUnflushed(Object message) {
+        unflushedMessages.incrementAndGet();
+        unflushedBytes.addAndGet(messageSize(message));
+    }
+
+    /**
+     * Recalculates the congestion level of the association from the amount of bytes queued in the channel
+     */
+    protected void checkCongestion() {
+        Channel ch = this.channel;
+        AssociationImpl association = this.association;
+        if (ch == null || association == null)
+            return;
+
+        ChannelOutboundBuffer outboundBuffer = ch.unsafe().outboundBuffer();
+        long pendingBytes = outboundBuffer != null ? outboundBuffer.totalPendingWriteBytes() : 0;
+        int congLevel = association.updateCongestionLevel(pendingBytes);
+
+        if (congLevel > 0 && ch.isActive() && congestionMonitorScheduled.compareAndSet(false, true)) {
+            ch.eventLoop().schedule(congestionMonitorTask, CONGESTION_MONITOR_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Closes the channel after the queued and the not yet written messages are written. Once the timeout expires the
+     * channel is closed anyway and the messages that are still not written are dropped
+     *
+     * @return the close future of the channel, null if there is no channel
+     */
+    protected ChannelFuture drainAndClose(long timeoutMillis) {
+        final Channel ch = this.channel;
+        if (ch == null)
+            return null;
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            ch.eventLoop().execute(new Runnable() {
+                @Override
+                public void run() {
+                    startDrain(ch, deadline);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return this.closeChannel();
+        }
+        return ch.closeFuture();
+    }
+
+    private void startDrain(Channel ch, long deadline) {
+        ChannelOutboundBuffer outboundBuffer = ch.unsafe().outboundBuffer();
+        if (outboundBuffer == null || !ch.isActive()) {
+            this.releaseSendQueue();
+            this.closeChannel();
+            return;
+        }
+
+        // the drain baseline is complete before the flush writes any message: the flushed messages still in the buffer,
+        // the messages written without a flush and the queued messages that are written below
+        OutboundDrain drain = new OutboundDrain(ch, outboundBuffer, deadline);
+        drain.addUnflushed(unflushedMessages.getAndSet(0), unflushedBytes.getAndSet(0));
+        Object message;
+        while ((message = sendQueue.poll()) != null) {
+            drain.addQueued(message);
+            writeQueued(ch, message);
+        }
+
+        ch.flush();
+        drain.run();
+    }
+
+    /**
+     * Waits till the outbound buffer of the channel is empty or the deadline passes and closes the channel
+     */
+    private class OutboundDrain implements Runnable, ChannelOutboundBuffer.MessageProcessor {
+        private final Channel ch;
+        private final ChannelOutboundBuffer outboundBuffer;
+        private final long deadline;
+        private long messages;
+        private long bytes;
+        private long remainingMessages;
+        private long remainingBytes;
+
+        OutboundDrain(Channel ch, ChannelOutboundBuffer outboundBuffer, long deadline) {
+            this.ch = ch;
+            this.outboundBuffer = outboundBuffer;
+            this.deadline = deadline;
+            this.countRemaining();
+            this.messages = this.remainingMessages;
+            this.bytes = this.remainingBytes;
+        }
+
+        void addUnflushed(long messages, long bytes) {
+            this.messages += messages;
+            this.bytes += bytes;
+        }
+
+        void addQueued(Object message) {
+            if (message instanceof SendLatencyPromise)
+                message = ((SendLatencyPromise) message).getMessage();
+            this.messages++;
+            this.bytes += messageSize(message);
+        }
+
+        @Override
+        public void run() {
+            // once the channel is closed the buffer is emptied, so the last seen counts are kept
+            boolean active = this.ch.isActive();
+            if (active)
+                this.countRemaining();
+
+            if (active && this.remainingMessages > 0 && System.nanoTime() - this.deadline < 0) {
+                this.ch.eventLoop().schedule(this, DRAIN_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+                return;
+            }
+
+            AssociationImpl association = NettySctpChannelInboundHandlerAdapter.this.association;
+            if (association != null) {
+                association.onOutboundDrained(this.messages - this.remainingMessages, this.bytes - this.remainingBytes,
+                        this.remainingMessages, this.remainingBytes);
+            }
+            closeChannel();
+        }
+
+        private void countRemaining() {
+            this.remainingMessages = 0;
+            this.remainingBytes = 0;
+            if (this.outboundBuffer.isEmpty())
+                return;
             try {
-                ch.close().sync();
-            } catch (InterruptedException e) {
-                logger.error(String.format("Error while trying to close Channel for Associtaion %s",
-                        this.association.getName(), e));
+                this.outboundBuffer.forEachFlushedMessage(this);
+            } catch (Exception e) {
+                // not thrown by this processor
             }
         }
+
+        @Override
+        public boolean processMessage(Object msg) {
+            this.remainingMessages++;
+            this.remainingBytes += messageSize(msg);
+            return true;
+        }
+    }
+
+    private static int messageSize(Object message) {
+        if (message instanceof ByteBuf)
+            return ((ByteBuf) message).readableBytes();
+        if (message instanceof ByteBufHolder)
+            return ((ByteBufHolder) message).content().readableBytes();
+        return 0;
+    }
+
+    protected ChannelFuture closeChannel() {
+        Channel ch = this.channel;
+        if (ch == null)
+            return null;
+
+        // not waiting for the close, the channel handler is cleared and reconnect is scheduled when unregistered
+        return ch.close().addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                if (!future.isSuccess()) {
+                    logger.error(String.format("Error while trying to close Channel for Associtaion %s",
+                            association.getName()), future.cause());
+                }
+            }
+        });
     }
 
 }
\ No newline at end of file
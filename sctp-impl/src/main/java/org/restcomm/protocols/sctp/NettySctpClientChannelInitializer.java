@@ -24,7 +24,6 @@ package org.restcomm.protocols.sctp;
 
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.sctp.SctpChannel;
-import io.netty.handler.codec.sctp.SctpMessageCompletionHandler;
 
 /**
  * @author <a href="mailto:amit.bhayani@telestax.com">Amit Bhayani</a>
@@ -45,7 +44,13 @@ public class NettySctpClientChannelInitializer extends ChannelInitializer<SctpCh
 
     @Override
     protected void initChannel(SctpChannel ch) throws Exception {
-        ch.pipeline().addLast(new SctpMessageCompletionHandler(), new NettySctpClientHandler(this.nettyAssociationImpl));
+        if (this.nettyAssociationImpl.getManagement().isFlushConsolidationEnabled())
+            NettyFlushConsolidationHandler.addLast(ch.pipeline(), this.nettyAssociationImpl.getManagement());
+
+        if (this.nettyAssociationImpl.getManagement().isReassemblyEnabled())
+            ch.pipeline().addLast(new NettySctpReassemblyHandler(this.nettyAssociationImpl.getManagement()));
+
+        ch.pipeline().addLast(new NettySctpClientHandler(this.nettyAssociationImpl));
 
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.sctp.SctpMessage;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+
+/**
+ * Reassembles the SCTP messages that are received in several parts (partial delivery) into one complete message per
+ * stream. The parts are added as components of one flat CompositeByteBuf, so no data is copied. A message that grows
+ * beyond maxMessageSize is dropped together with its remaining parts
+ *
+ * @author yulianoifa
+ *
+ */
+public class NettySctpReassemblyHandler extends MessageToMessageDecoder<SctpMessage> {
+
+    protected static final Logger logger = LogManager.getLogger(NettySctpReassemblyHandler.class.getName());
+
+    private final SctpManagementImpl management;
+    private final int maxMessageSize;
+
+    // accessed by the event loop only
+    private final IntObjectMap<CompositeByteBuf> fragments = new IntObjectHashMap<CompositeByteBuf>();
+    private final IntObjectMap<Boolean> discarding = new IntObjectHashMap<Boolean>();
+
+    public NettySctpReassemblyHandler(SctpManagementImpl management) {
+        this.management = management;
+        this.maxMessageSize = management.getMaxReassembledMessageSize();
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, SctpMessage msg, List<Object> out) throws Exception {
+        int streamNumber = msg.streamIdentifier();
+        boolean complete = msg.isComplete();
+
+        if (!this.discarding.isEmpty() && this.discarding.containsKey(streamNumber)) {
+            // the rest of a message that is too big
+            if (complete)
+                this.discarding.remove(streamNumber);
+            return;
+        }
+
+        CompositeByteBuf composite = this.fragments.get(streamNumber);
+        if (composite == null && complete) {
+            // not fragmented, the message is released by the decoder after this method returns
+            out.add(msg.retain());
+            return;
+        }
+
+        ByteBuf content = msg.content();
+        this.management.reassemblyFragments.incrementAndGet();
+        int size = (composite != null ? composite.readableBytes() : 0) + content.readableBytes();
+        if (size > this.maxMessageSize) {
+            if (composite != null) {
+                this.fragments.remove(streamNumber);
+                composite.release();
+            }
+            if (!complete)
+                this.discarding.put(streamNumber, Boolean.TRUE);
+
+            this.management.reassemblyDropped.incrementAndGet();
+            logger.warn(String.format("Dropping a reassembled message of stream=%d, size exceeds maxMessageSize=%d",
+                    streamNumber, this.maxMessageSize));
+            return;
+        }
+
+        if (composite == null) {
+            composite = ctx.alloc().compositeBuffer(Integer.MAX_VALUE);
+            this.fragments.put(streamNumber, composite);
+        }
+        composite.addComponent(true, content.retain());
+
+        if (complete) {
+            this.fragments.remove(streamNumber);
+            this.management.reassembledMessages.incrementAndGet();
+            out.add(new SctpMessage(msg.protocolIdentifier(), streamNumber, msg.isUnordered(), composite));
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        this.releaseFragments();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        this.releaseFragments();
+        super.handlerRemoved(ctx);
+    }
+
+    private void releaseFragments() {
+        for (CompositeByteBuf composite : this.fragments.values())
+            composite.release();
+        this.fragments.clear();
+        this.discarding.clear();
+    }
+}
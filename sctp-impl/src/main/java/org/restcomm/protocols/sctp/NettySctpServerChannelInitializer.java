@@ -24,7 +24,6 @@ package org.restcomm.protocols.sctp;
 
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.sctp.SctpChannel;
-import io.netty.handler.codec.sctp.SctpMessageCompletionHandler;
 
 /**
  * @author <a href="mailto:amit.bhayani@telestax.com">Amit Bhayani</a>
@@ -43,8 +42,13 @@ public class NettySctpServerChannelInitializer extends ChannelInitializer<SctpCh
 
     @Override
     protected void initChannel(SctpChannel ch) throws Exception {
-        ch.pipeline().addLast(new SctpMessageCompletionHandler(),
-                new NettySctpServerHandler(this.nettyServerImpl, this.sctpManagementImpl));
+        if (this.sctpManagementImpl.isFlushConsolidationEnabled())
+            NettyFlushConsolidationHandler.addLast(ch.pipeline(), this.sctpManagementImpl);
+
+        if (this.sctpManagementImpl.isReassemblyEnabled())
+            ch.pipeline().addLast(new NettySctpReassemblyHandler(this.sctpManagementImpl));
+
+        ch.pipeline().addLast(new NettySctpServerHandler(this.nettyServerImpl, this.sctpManagementImpl));
     }
 
 }
\ No newline at end of file
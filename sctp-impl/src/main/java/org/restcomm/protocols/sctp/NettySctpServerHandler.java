@@ -26,12 +26,11 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 
 import java.net.InetSocketAddress;
-import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.restcomm.protocols.api.Association;
-import org.restcomm.protocols.api.AssociationType;
 import org.restcomm.protocols.api.IpChannelType;
 
 /**
@@ -46,6 +45,9 @@ public class NettySctpServerHandler extends NettySctpChannelInboundHandlerAdapte
     private final ServerImpl serverImpl;
     private final SctpManagementImpl managementImpl;
 
+    // this connection holds a place in the concurrent anonymous connections of the server
+    private boolean anonymConnectionAcquired = false;
+
     /**
      * 
      */
@@ -60,6 +62,19 @@ public class NettySctpServerHandler extends NettySctpChannelInboundHandlerAdapte
         if (association != null) {
             this.association.setChannelHandler(null);
         }
+
+        this.releaseAnonymConnection();
+    }
+
+    /**
+     * Releases the place of the anonymous connection once, from the event loop or from the ServerListener executor when
+     * the event loop rejects the task
+     */
+    private synchronized void releaseAnonymConnection() {
+        if (this.anonymConnectionAcquired) {
+            this.anonymConnectionAcquired = false;
+            this.serverImpl.releaseAnonymConnection();
+        }
     }
 
     @Override
@@ -79,104 +94,179 @@ public class NettySctpServerHandler extends NettySctpChannelInboundHandlerAdapte
             logger.debug(String.format("Received connect request from peer host=%s port=%d", host, port));
         }
 
-        // Iterate through all corresponding associate to
-        // check if incoming connection request matches with any provisioned
-        // ip:port
-        Iterator<Association> iterator = this.managementImpl.associations.values().iterator();
-        while(iterator.hasNext() && !provisioned) {
-            AssociationImpl association = (AssociationImpl) iterator.next();
-
-            // check if an association binds to the found server
-            if (serverImpl.getName().equals(association.getServerName())
-                    && association.getAssociationType() == AssociationType.SERVER) {
-                // compare port and ip of remote with provisioned
-                if ((port == association.getPeerPort() || association.getPeerPort()==0) && (host.equals(association.getPeerAddress()))) {
-                    provisioned = true;
-
-                    if (!association.isStarted()) {
-                        logger.error(String.format(
-                                "Received connect request for Association=%s but not started yet. Droping the connection!",
-                                association.getName()));
-                        channel.close();
-                        return;
-                    }
-
-                    this.association = association;
-                    this.channel = channel;
-                    this.ctx = ctx;
-                    this.association.setChannelHandler(this);
-
-                    if (logger.isInfoEnabled()) {
-                        logger.info(String.format("Connected %s", association));
-                    }
-
-                    if (association.getIpChannelType() == IpChannelType.TCP) {
-                        this.association.markAssociationUp(1, 1);
-                    }
-
-                    break;
-                }
-            }
-        }// for loop
-
-        if (!provisioned && serverImpl.isAcceptAnonymousConnections() && this.managementImpl.getServerListener() != null) {
-            // the server accepts anonymous connections
-
-            // checking for limit of concurrent connections
-            if (serverImpl.getMaxConcurrentConnectionsCount() > 0
-                    && serverImpl.anonymAssociations.size() >= serverImpl.getMaxConcurrentConnectionsCount()) {
-                logger.warn(String.format(
-                        "Incoming anonymous connection is rejected because of too many active connections to Server=%s",
-                        serverImpl));
-                channel.close();
-                return;
-            }
-
+        // looking up the association provisioned for the incoming connection ip:port
+        AssociationImpl associationTemp = this.managementImpl.associationIndex.getServerAssociation(
+                serverImpl.getName(), host, port);
+        if (associationTemp != null) {
             provisioned = true;
 
-            AssociationImpl anonymAssociation = new AssociationImpl(host, port, serverImpl.getName(),
-                    serverImpl.getIpChannelType(), serverImpl);
-            anonymAssociation.setManagement(this.managementImpl);
-
-            try {
-                this.managementImpl.getServerListener().onNewRemoteConnection(serverImpl, anonymAssociation);
-            } catch (Throwable e) {
-                logger.warn(String.format("Exception when invoking ServerListener.onNewRemoteConnection() Ass=%s",
-                        anonymAssociation), e);
+            if (!associationTemp.isStarted()) {
+                logger.error(String.format(
+                        "Received connect request for Association=%s but not started yet. Droping the connection!",
+                        associationTemp.getName()));
+                serverImpl.onConnectionRejected();
                 channel.close();
                 return;
             }
 
-            if (!anonymAssociation.isStarted()) {
-                // connection is rejected
-                logger.info(String.format("Rejected anonymous %s", anonymAssociation));
-                channel.close();
-                return;
-            }
-
-            this.association = anonymAssociation;
+            this.association = associationTemp;
             this.channel = channel;
             this.ctx = ctx;
             this.association.setChannelHandler(this);
+            serverImpl.onConnectionAccepted();
 
             if (logger.isInfoEnabled()) {
-                logger.info(String.format("Accepted anonymous %s", anonymAssociation));
+                logger.info(String.format("Connected %s", associationTemp));
             }
 
-            if (association.getIpChannelType() == IpChannelType.TCP) {
+            if (associationTemp.getIpChannelType() == IpChannelType.TCP) {
                 this.association.markAssociationUp(1, 1);
             }
         }
 
+        if (!provisioned && serverImpl.isAcceptAnonymousConnections() && this.managementImpl.getServerListener() != null) {
+            // the server accepts anonymous connections
+            this.acceptAnonymousConnection(ctx, host, port);
+            return;
+        }
+
         if (!provisioned) {
             // There is no corresponding Associate provisioned. Lets close the
             // channel here
             logger.warn(String.format("Received connect request from non provisioned %s:%d address. Closing Channel", host,
                     port));
+            serverImpl.onConnectionRejected();
             ctx.close();
         }
     }
 
+    private void acceptAnonymousConnection(final ChannelHandlerContext ctx, String host, int port) {
+        final Channel channel = ctx.channel();
+
+        // checking for the accept rate
+        if (!serverImpl.acquireAcceptPermit()) {
+            logger.warn(String.format(
+                    "Incoming anonymous connection from %s:%d is throttled because of too high accept rate to Server=%s",
+                    host, port, serverImpl.getName()));
+            channel.close();
+            return;
+        }
+
+        // checking for limit of concurrent connections
+        if (!serverImpl.acquireAnonymConnection()) {
+            logger.warn(String.format(
+                    "Incoming anonymous connection is rejected because of too many active connections to Server=%s",
+                    serverImpl));
+            channel.close();
+            return;
+        }
+        synchronized (this) {
+            this.anonymConnectionAcquired = true;
+        }
+
+        final AssociationImpl anonymAssociation = new AssociationImpl(host, port, serverImpl.getName(),
+                serverImpl.getIpChannelType(), serverImpl);
+        anonymAssociation.setManagement(this.managementImpl);
+
+        Executor executor = this.managementImpl.getServerListenerExecutor();
+        if (executor == null) {
+            if (this.notifyServerListener(anonymAssociation))
+                this.bindAnonymousAssociation(ctx, anonymAssociation);
+            else
+                channel.close();
+            return;
+        }
+
+        // nothing is read till the listener decides and the association is bound to the channel
+        channel.config().setAutoRead(false);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final boolean started = notifyServerListener(anonymAssociation);
+                    try {
+                        channel.eventLoop().execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (!started) {
+                                    channel.close();
+                                } else if (!channel.isActive()) {
+                                    // the peer has gone while the listener was deciding
+                                    stopAnonymousAssociation(anonymAssociation);
+                                } else {
+                                    bindAnonymousAssociation(ctx, anonymAssociation);
+                                    channel.config().setAutoRead(true);
+                                }
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // the event loop is shut down, so the channel is not unregistered by it
+                        logger.warn(String.format("Event loop rejected the accepted anonymous connection Ass=%s",
+                                anonymAssociation), e);
+                        if (started)
+                            stopAnonymousAssociation(anonymAssociation);
+                        channel.close();
+                        releaseAnonymConnection();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn(String.format("ServerListener executor rejected the incoming anonymous connection Ass=%s",
+                    anonymAssociation), e);
+            serverImpl.onConnectionRejected();
+            channel.close();
+        }
+    }
+
+    /**
+     * Invokes the ServerListener for the new anonymous association
+     *
+     * @return true if the listener has started the association
+     */
+    private boolean notifyServerListener(AssociationImpl anonymAssociation) {
+        try {
+            this.managementImpl.getServerListener().onNewRemoteConnection(serverImpl, anonymAssociation);
+        } catch (Throwable e) {
+            logger.warn(String.format("Exception when invoking ServerListener.onNewRemoteConnection() Ass=%s",
+                    anonymAssociation), e);
+            serverImpl.onConnectionRejected();
+            return false;
+        }
+
+        if (!anonymAssociation.isStarted()) {
+            // connection is rejected
+            logger.info(String.format("Rejected anonymous %s", anonymAssociation));
+            serverImpl.onConnectionRejected();
+            return false;
+        }
+
+        return true;
+    }
+
+    private void bindAnonymousAssociation(ChannelHandlerContext ctx, AssociationImpl anonymAssociation) {
+        this.association = anonymAssociation;
+        this.channel = ctx.channel();
+        this.ctx = ctx;
+        this.association.setChannelHandler(this);
+        serverImpl.onConnectionAccepted();
+
+        if (logger.isInfoEnabled()) {
+            logger.info(String.format("Accepted anonymous %s", anonymAssociation));
+        }
+
+        if (association.getIpChannelType() == IpChannelType.TCP) {
+            this.association.markAssociationUp(1, 1);
+        }
+    }
+
+    private void stopAnonymousAssociation(AssociationImpl anonymAssociation) {
+        try {
+            anonymAssociation.stopAnonymousAssociation();
+        } catch (Exception e) {
+            logger.warn(String.format("Exception when stopping anonymous Ass=%s", anonymAssociation), e);
+        }
+    }
+
     @Override
     public void channelActive(ChannelHandlerContext ctx) {
         if (logger.isDebugEnabled()) {
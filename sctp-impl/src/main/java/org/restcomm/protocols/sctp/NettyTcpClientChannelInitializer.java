@@ -45,7 +45,11 @@ public class NettyTcpClientChannelInitializer extends ChannelInitializer<SocketC
 
     @Override
     protected void initChannel(SocketChannel ch) throws Exception {
-        ch.pipeline().addLast(new NettySctpClientHandler(this.nettyAssociationImpl));
+        if (this.nettyAssociationImpl.getManagement().isFlushConsolidationEnabled())
+            NettyFlushConsolidationHandler.addLast(ch.pipeline(), this.nettyAssociationImpl.getManagement());
+
+        NettySctpClientHandler handler = new NettySctpClientHandler(this.nettyAssociationImpl);
+        ch.pipeline().addLast(new NettyTcpFramingDecoder(handler), handler);
 
     }
 
@@ -0,0 +1,91 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.List;
+
+import org.restcomm.protocols.api.TcpFraming;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * Splits the byte stream of a TCP channel into messages by the {@link TcpFraming} of the association. The read buffers
+ * are collected into a composite buffer and the messages are passed as retained slices of it, so the data is not
+ * copied. Without framing the read buffers are passed as they are
+ *
+ * @author yulianoifa
+ *
+ */
+public class NettyTcpFramingDecoder extends ByteToMessageDecoder {
+
+    private final NettySctpChannelInboundHandlerAdapter handler;
+
+    public NettyTcpFramingDecoder(NettySctpChannelInboundHandlerAdapter handler) {
+        this.handler = handler;
+        this.setCumulator(COMPOSITE_CUMULATOR);
+    }
+
+    private TcpFraming getFraming() {
+        // for server channels the association is known after the channel is activated
+        AssociationImpl association = this.handler.association;
+        return association != null ? association.getTcpFraming() : null;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!this.internalBuffer().isReadable() && this.getFraming() == null) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        TcpFraming framing = this.getFraming();
+        if (framing == null) {
+            // the framing has been removed, passing the rest of data
+            out.add(in.readRetainedSlice(in.readableBytes()));
+            return;
+        }
+
+        int frameLength;
+        try {
+            frameLength = framing.getFrameLength(in);
+            if (frameLength == 0)
+                throw new CorruptedFrameException("Frame length cannot be 0");
+        } catch (Exception e) {
+            // the stream is corrupted, the data is discarded so it is not decoded again when the channel is closed
+            in.skipBytes(in.readableBytes());
+            throw e;
+        }
+
+        if (frameLength < 0 || in.readableBytes() < frameLength)
+            return;
+
+        out.add(in.readRetainedSlice(frameLength));
+    }
+}
@@ -43,6 +43,10 @@ public class NettyTcpServerChannelInitializer extends ChannelInitializer<SocketC
 
     @Override
     protected void initChannel(SocketChannel ch) throws Exception {
-        ch.pipeline().addLast(new NettySctpServerHandler(this.nettyServerImpl, this.sctpManagementImpl));
+        if (this.sctpManagementImpl.isFlushConsolidationEnabled())
+            NettyFlushConsolidationHandler.addLast(ch.pipeline(), this.sctpManagementImpl);
+
+        NettySctpServerHandler handler = new NettySctpServerHandler(this.nettyServerImpl, this.sctpManagementImpl);
+        ch.pipeline().addLast(new NettyTcpFramingDecoder(handler), handler);
     }
 }
\ No newline at end of file
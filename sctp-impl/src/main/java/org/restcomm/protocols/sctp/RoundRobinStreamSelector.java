@@ -0,0 +1,64 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.StreamSelector;
+
+/**
+ * Spreads the sent data over the outbound streams one by one, starting from firstStream. Streams below firstStream (for
+ * example stream 0 that M3UA reserves for management messages) are used only if the association has no other streams
+ *
+ * @author yulianoifa
+ *
+ */
+public class RoundRobinStreamSelector implements StreamSelector {
+
+    private final int firstStream;
+    private final AtomicInteger counter = new AtomicInteger(0);
+
+    public RoundRobinStreamSelector() {
+        this(0);
+    }
+
+    public RoundRobinStreamSelector(int firstStream) {
+        if (firstStream < 0)
+            throw new IllegalArgumentException("First stream cannot be less than 0");
+
+        this.firstStream = firstStream;
+    }
+
+    public int getFirstStream() {
+        return firstStream;
+    }
+
+    @Override
+    public int selectStream(PayloadData payloadData, int maxOutboundStreams) {
+        int streams = maxOutboundStreams - firstStream;
+        if (streams <= 0)
+            return maxOutboundStreams - 1;
+
+        return firstStream + (counter.getAndIncrement() & Integer.MAX_VALUE) % streams;
+    }
+}
@@ -27,28 +27,59 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationDefinition;
+import org.restcomm.protocols.api.AssociationGroup;
 import org.restcomm.protocols.api.AssociationType;
+import org.restcomm.protocols.api.CongestionPolicy;
 import org.restcomm.protocols.api.IpChannelType;
+import org.restcomm.protocols.api.LatencyHistogram;
 import org.restcomm.protocols.api.Management;
 import org.restcomm.protocols.api.ManagementEventListener;
 import org.restcomm.protocols.api.Server;
 import org.restcomm.protocols.api.ServerListener;
+import org.restcomm.protocols.api.TransportType;
 
 import com.sun.nio.sctp.SctpStandardSocketOptions;
 import com.sun.nio.sctp.SctpStandardSocketOptions.InitMaxStreams;
 
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
 import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
 
 /**
  * @author <a href="mailto:amit.bhayani@telestax.com">Amit Bhayani</a>
@@ -60,21 +91,50 @@ public class SctpManagementImpl implements Management {
     private static final Logger logger = LogManager.getLogger(SctpManagementImpl.class);
 
     static final int DEFAULT_IO_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+    private static final int TIMER_TICKS_PER_WHEEL = 512;
+    // the time to wait for the channels of the associations and servers to be closed when the management is stopped, in
+    // addition to the stop drain timeout
+    private static final long STOP_TIMEOUT = 5000;
 
     private final String name;
 
     private int connectDelay = 5000;
+    private volatile int connectTimeout = 10000;
+    private volatile double connectDelayMultiplier = 1;
+    private volatile int maxConnectDelay = 60000;
+    private volatile double connectDelayJitter = 0;
+    private volatile int maxConnectRate = 0;
+    private volatile TokenBucket connectRateLimiter = null;
+    protected AtomicLong throttledConnectAttempts = new AtomicLong(0);
 
     private ServerListener serverListener = null;
+    private volatile Executor serverListenerExecutor = null;
 
     private ConcurrentHashMap<UUID,ManagementEventListener> managementEventListeners = new ConcurrentHashMap<UUID,ManagementEventListener>();
     protected ConcurrentHashMap<String,Server> servers = new ConcurrentHashMap<String,Server>();
     protected AssociationMap associations = new AssociationMap();
+    protected AssociationIndex associationIndex = new AssociationIndex();
+    protected ConcurrentHashMap<String,AssociationGroupImpl> associationGroups = new ConcurrentHashMap<String,AssociationGroupImpl>();
     private volatile boolean started = false;
 
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
+    // with the native transport the SCTP channels that are NIO only have their own groups, otherwise the same as above
+    private EventLoopGroup sctpBossGroup;
+    private EventLoopGroup sctpWorkerGroup;
+    private TransportType transportType = TransportType.NIO;
+    private volatile boolean nativeTransport = false;
     private ScheduledExecutorService clientExecutor;
+    // association timers, the expired tasks are handed over to the client executor
+    private HashedWheelTimer timer;
+    private volatile int timerTickDuration = 10;
+
+    // draining of the outbound messages when an association is stopped
+    private volatile int stopDrainTimeout = 0;
+    protected AtomicLong drainedOnStopMessages = new AtomicLong(0);
+    protected AtomicLong drainedOnStopBytes = new AtomicLong(0);
+    protected AtomicLong droppedOnStopMessages = new AtomicLong(0);
+    protected AtomicLong droppedOnStopBytes = new AtomicLong(0);
 
     // SctpStandardSocketOptions
 
@@ -116,6 +176,44 @@ public class SctpManagementImpl implements Management {
     private int bossSize;
     private int workerSize;
     private int clientSize;
+
+    // Flush consolidation of the association channels
+    private volatile boolean flushConsolidationEnabled = false;
+    private volatile int flushConsolidationMaxPendingWrites = 256;
+    protected AtomicLong flushRequests = new AtomicLong(0);
+    protected AtomicLong performedFlushes = new AtomicLong(0);
+
+    // Congestion control: amount of bytes queued in an association channel for sending
+    private volatile WriteBufferWaterMark congestionWatermark = new WriteBufferWaterMark(32 * 1024, 64 * 1024);
+    private volatile CongestionPolicy congestionPolicy = CongestionPolicy.NONE;
+    private volatile int congestionPolicyLevel = 3;
+
+    // Sending via the per association queue that is drained by the channel event loop
+    private volatile boolean sendQueueEnabled = false;
+
+    // Delivery of the received data to the listeners in the separate threads
+    private volatile int inboundDispatchThreads = 0;
+    private volatile int inboundDispatchQueueSize = 10000;
+    private volatile InboundDispatcher inboundDispatcher = null;
+    protected AtomicLong inboundDispatched = new AtomicLong(0);
+    protected AtomicLong inboundDispatchWaitTime = new AtomicLong(0);
+    protected AtomicLong inboundDispatchMaxWaitTime = new AtomicLong(0);
+    protected AtomicLong inboundDispatchRejected = new AtomicLong(0);
+    private volatile int inboundLowWatermark = 0;
+    private volatile int inboundHighWatermark = 0;
+    protected AtomicLong inboundReadSuspended = new AtomicLong(0);
+
+    // Reassembly of SCTP messages received in several parts
+    private volatile boolean reassemblyEnabled = true;
+    private volatile int maxReassembledMessageSize = 1024 * 1024;
+    protected AtomicLong reassembledMessages = new AtomicLong(0);
+    protected AtomicLong reassemblyFragments = new AtomicLong(0);
+    protected AtomicLong reassemblyDropped = new AtomicLong(0);
+
+    // Latency histograms, the management ones are null while disabled
+    private volatile LatencyHistogram sendLatencyHistogram = null;
+    private volatile LatencyHistogram receiveLatencyHistogram = null;
+    private volatile boolean associationLatencyHistogramsEnabled = false;
     
     /**
 	 * 
@@ -157,18 +255,67 @@ public class SctpManagementImpl implements Management {
         this.serverListener = serverListener;
     }
 
-    protected EventLoopGroup getBossGroup() {
-        return bossGroup;
+    @Override
+    public Executor getServerListenerExecutor() {
+        return this.serverListenerExecutor;
+    }
+
+    @Override
+    public void setServerListenerExecutor(Executor serverListenerExecutor) {
+        this.serverListenerExecutor = serverListenerExecutor;
+    }
+
+    protected EventLoopGroup getBossGroup(IpChannelType ipChannelType) {
+        return ipChannelType == IpChannelType.SCTP ? sctpBossGroup : bossGroup;
     }
 
-    protected EventLoopGroup getWorkerGroup() {
-        return workerGroup;
+    protected EventLoopGroup getWorkerGroup(IpChannelType ipChannelType) {
+        return ipChannelType == IpChannelType.SCTP ? sctpWorkerGroup : workerGroup;
+    }
+
+    protected Class<? extends SocketChannel> getTcpChannelClass() {
+        return nativeTransport ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+
+    protected Class<? extends ServerSocketChannel> getTcpServerChannelClass() {
+        return nativeTransport ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
     }
 
     protected ScheduledExecutorService getClientExecutor() {
         return clientExecutor;
     }
 
+    protected Timer getTimer() {
+        return timer;
+    }
+
+    /**
+     * Schedules the association task on the timer, the task is executed by the client executor when the timer expires
+     *
+     * @return the timeout of the task or null if the management is stopped and the task is not scheduled
+     */
+    protected Timeout scheduleClientTask(final Runnable task, long delay, TimeUnit unit) {
+        final ScheduledExecutorService executor = this.clientExecutor;
+        try {
+            return this.timer.newTimeout(new TimerTask() {
+                @Override
+                public void run(Timeout timeout) {
+                    try {
+                        executor.execute(task);
+                    } catch (RejectedExecutionException e) {
+                        // the management is stopped
+                    }
+                }
+            }, delay, unit);
+        } catch (IllegalStateException e) {
+            // the timer is stopped together with the management, an association may still try to reconnect
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Task is not scheduled because management=%s is stopped", this.name));
+            }
+            return null;
+        }
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -203,10 +350,38 @@ public class SctpManagementImpl implements Management {
             return;
         }
 
-        this.bossGroup = new NioEventLoopGroup(bossSize, new DefaultThreadFactory("Sctp-BossGroup-" + this.name));
-        this.workerGroup = new NioEventLoopGroup(workerSize, new DefaultThreadFactory("Sctp-WorkerGroup-" + this.name));
+        this.nativeTransport = false;
+        if (this.transportType != TransportType.NIO) {
+            if (Epoll.isAvailable()) {
+                this.nativeTransport = true;
+            } else if (this.transportType == TransportType.EPOLL) {
+                logger.warn(String.format("Native epoll transport is not available, using NIO for management=%s",
+                        this.name), Epoll.unavailabilityCause());
+            }
+        }
+
+        if (this.nativeTransport) {
+            this.bossGroup = new EpollEventLoopGroup(bossSize, new DefaultThreadFactory("Sctp-BossGroup-" + this.name));
+            this.workerGroup = new EpollEventLoopGroup(workerSize, new DefaultThreadFactory("Sctp-WorkerGroup-"
+                    + this.name));
+            // the threads are not started till the first SCTP channel is registered
+            this.sctpBossGroup = new NioEventLoopGroup(bossSize, new DefaultThreadFactory("Sctp-SctpBossGroup-"
+                    + this.name));
+            this.sctpWorkerGroup = new NioEventLoopGroup(workerSize, new DefaultThreadFactory("Sctp-SctpWorkerGroup-"
+                    + this.name));
+        } else {
+            this.bossGroup = new NioEventLoopGroup(bossSize, new DefaultThreadFactory("Sctp-BossGroup-" + this.name));
+            this.workerGroup = new NioEventLoopGroup(workerSize, new DefaultThreadFactory("Sctp-WorkerGroup-"
+                    + this.name));
+            this.sctpBossGroup = this.bossGroup;
+            this.sctpWorkerGroup = this.workerGroup;
+        }
         this.clientExecutor = new ScheduledThreadPoolExecutor(clientSize, new DefaultThreadFactory("Sctp-ClientExecutorGroup-"
                 + this.name));
+        this.timer = new HashedWheelTimer(new DefaultThreadFactory("Sctp-Timer-" + this.name), this.timerTickDuration,
+                TimeUnit.MILLISECONDS, TIMER_TICKS_PER_WHEEL);
+        if (this.inboundDispatchThreads > 0)
+            this.inboundDispatcher = new InboundDispatcher(this, this.inboundDispatchThreads, this.inboundDispatchQueueSize);
 
         this.started = true;
 
@@ -246,46 +421,42 @@ public class SctpManagementImpl implements Management {
             }
         }
 
-        // Stop all associations
+        // Stop all associations and then all servers in parallel and wait till their channels are closed
+        List<String> assocNames = new ArrayList<String>();
         Iterator<Association> assIterator=this.associations.values().iterator();
         while(assIterator.hasNext()) {
             Association associationTemp = assIterator.next();
             if (associationTemp.isStarted()) {
-                ((AssociationImpl) associationTemp).stop();
+                assocNames.add(associationTemp.getName());
             }
         }
 
+        List<String> serverNames = new ArrayList<String>();
         Iterator<Server> serIterator=servers.values().iterator();
         while(serIterator.hasNext()) {
             Server serverTemp = serIterator.next();
             if (serverTemp.isStarted()) {
-                try {
-                    ((ServerImpl) serverTemp).stop();
-                } catch (Exception e) {
-                    logger.error(String.format("Exception while stopping the Server=%s", serverTemp.getName()), e);
-                }
+                serverNames.add(serverTemp.getName());
             }
         }
 
-        // waiting till stopping associations
-        for (int i1 = 0; i1 < 20; i1++) {
-            boolean assConnected = false;
-            assIterator=this.associations.values().iterator();
-            while(assIterator.hasNext()) {
-                Association associationTemp = assIterator.next();
-                if (associationTemp.isConnected()) {
-                    assConnected = true;
-                    break;
-                }
-            }
-            if (!assConnected)
-                break;
-        }
+        // the servers can be stopped only after their associations
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT + this.stopDrainTimeout;
+        this.awaitStopped(this.stopAssociations(assocNames), deadline, "associations");
+        this.awaitStopped(this.stopServers(serverNames), deadline, "servers");
 
-        // TODO - make a general shutdown and waiting for it instead of "waiting till stopping associations" 
         this.bossGroup.shutdownGracefully();
         this.workerGroup.shutdownGracefully();
+        if (this.sctpBossGroup != this.bossGroup) {
+            this.sctpBossGroup.shutdownGracefully();
+            this.sctpWorkerGroup.shutdownGracefully();
+        }
+        this.timer.stop();
         this.clientExecutor.shutdown();
+        InboundDispatcher dispatcher = this.inboundDispatcher;
+        this.inboundDispatcher = null;
+        if (dispatcher != null)
+            dispatcher.shutdownGracefully();
        
 
         // TODO Should servers be also checked for shutdown?
@@ -294,6 +465,18 @@ public class SctpManagementImpl implements Management {
 
     }
 
+    private void awaitStopped(CompletableFuture<Void> future, long deadline, String kind) {
+        try {
+            future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn(String.format("Timeout while stopping the %s of management=%s", kind, this.name));
+        } catch (ExecutionException e) {
+            logger.error(String.format("Exception while stopping the %s of management=%s", kind, this.name), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -315,7 +498,7 @@ public class SctpManagementImpl implements Management {
             throw new Exception(String.format("Management=%s not started", this.name));
         }
 
-        if (this.associations.size() == 0 && this.servers.size() == 0)
+        if (this.associations.size() == 0 && this.servers.size() == 0 && this.associationGroups.size() == 0)
             // no resources allocated - nothing to do
             return;
 
@@ -324,6 +507,12 @@ public class SctpManagementImpl implements Management {
                     this.associations.size()));
         }
 
+        // Remove all association groups
+        Iterator<String> groupIterator=this.associationGroups.keySet().iterator();
+        while(groupIterator.hasNext()) {
+            this.removeAssociationGroup(groupIterator.next());
+        }
+
         // Remove all associations
         ArrayList<String> lst = new ArrayList<String>();
         Iterator<Association> assIterator=this.associations.values().iterator();
@@ -507,6 +696,15 @@ public class SctpManagementImpl implements Management {
      */
     @Override
     public void stopServer(String serverName) throws Exception {
+        // waiting till the channels are closed, so the address can be bound again. The wait is bounded
+        if (!this.doStopServer(serverName).awaitUninterruptibly(ServerImpl.CLOSE_TIMEOUT))
+            logger.warn(String.format("Timeout while stopping the Server=%s", serverName));
+    }
+
+    /**
+     * @return the future that is completed once the server channels are closed
+     */
+    private Future<Void> doStopServer(String serverName) throws Exception {
         if (!this.started) {
             throw new Exception(String.format("Management=%s not started", this.name));
         }
@@ -519,7 +717,29 @@ public class SctpManagementImpl implements Management {
         if(serverTemp==null)
         	throw new Exception(String.format("No Server found with name=%s", serverName));
         
-        ((ServerImpl) serverTemp).stop();        
+        return ((ServerImpl) serverTemp).stop();
+    }
+
+    @Override
+    public CompletableFuture<Void> startServers(Collection<String> serverNames) {
+        // the binds are waited for, so the servers are started by the client executor
+        return this.runInParallel(serverNames, true, new ParallelOperation() {
+            @Override
+            public Future<?> run(String serverName) throws Exception {
+                startServer(serverName);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> stopServers(Collection<String> serverNames) {
+        return this.runInParallel(serverNames, false, new ParallelOperation() {
+            @Override
+            public Future<?> run(String serverName) throws Exception {
+                return doStopServer(serverName);
+            }
+        });
     }
 
     /*
@@ -557,6 +777,19 @@ public class SctpManagementImpl implements Management {
             throw new Exception(String.format("Management=%s not started", this.name));
         }
 
+        AssociationImpl association = this.createServerAssociation(peerAddress, peerPort, serverName, assocName,
+                ipChannelType, null, null);
+        this.registerAssociation(association);
+        return association;
+    }
+
+    /**
+     * Validates the parameters of a new server association against the existing associations and the associations of
+     * the batch being added (if any) and creates the association without registering it
+     */
+    private AssociationImpl createServerAssociation(String peerAddress, int peerPort, String serverName,
+            String assocName, IpChannelType ipChannelType, AssociationIndex batchIndex,
+            Map<String, AssociationImpl> batchAssociations) throws Exception {
         if (peerAddress == null) {
             throw new Exception("Peer address cannot be null");
         }
@@ -573,7 +806,8 @@ public class SctpManagementImpl implements Management {
             throw new Exception("Association name cannot be null");
         }
 
-        if (this.associations.get(assocName) != null) {
+        if (this.associations.get(assocName) != null
+                || (batchAssociations != null && batchAssociations.containsKey(assocName))) {
             throw new Exception(String.format("Already has association=%s", assocName));
         }
 
@@ -582,14 +816,13 @@ public class SctpManagementImpl implements Management {
             throw new Exception(String.format("No Server found for name=%s", serverName));
         }
 
-        Iterator<Association> iterator=this.associations.values().iterator();
-        while(iterator.hasNext()) {
-            Association associationTemp = iterator.next();
-            
-            if (associationTemp.getServerName()!=null && associationTemp.getServerName().equals(server.getName()) && peerAddress.equals(associationTemp.getPeerAddress()) && associationTemp.getPeerPort() == peerPort) {
-                throw new Exception(String.format("Already has association=%s with same peer address=%s and port=%d",
-                        associationTemp.getName(), peerAddress, peerPort));
-            }
+        AssociationImpl associationTemp = this.associationIndex.findServerAssociation(server.getName(), peerAddress,
+                peerPort);
+        if (associationTemp == null && batchIndex != null)
+            associationTemp = batchIndex.findServerAssociation(server.getName(), peerAddress, peerPort);
+        if (associationTemp != null) {
+            throw new Exception(String.format("Already has association=%s with same peer address=%s and port=%d",
+                    associationTemp.getName(), peerAddress, peerPort));
         }
 
         if (server.getIpChannelType() != ipChannelType)
@@ -598,24 +831,6 @@ public class SctpManagementImpl implements Management {
         AssociationImpl association = new AssociationImpl(peerAddress, peerPort, serverName, assocName,
                 ipChannelType);
         association.setManagement(this);
-
-        this.associations.put(assocName, association);
-        ((ServerImpl) server).addAssociations(assocName);
-
-        Iterator<ManagementEventListener> manIterator=managementEventListeners.values().iterator();
-        while(manIterator.hasNext()) {
-            try {
-                manIterator.next().onAssociationAdded(association);
-            } catch (Throwable ee) {
-                logger.error("Exception while invoking onAssociationAdded", ee);
-            }
-        }
-
-        if (logger.isInfoEnabled()) {
-            logger.info(String.format("Added Associoation=%s of type=%s", association.getName(),
-                    association.getAssociationType()));
-        }
-
         return association;
     }
 
@@ -645,6 +860,19 @@ public class SctpManagementImpl implements Management {
             throw new Exception(String.format("Management=%s not started", this.name));
         }
 
+        AssociationImpl association = this.createAssociation(hostAddress, hostPort, peerAddress, peerPort, assocName,
+                ipChannelType, extraHostAddresses, null, null);
+        this.registerAssociation(association);
+        return association;
+    }
+
+    /**
+     * Validates the parameters of a new client association against the existing associations and the associations of
+     * the batch being added (if any) and creates the association without registering it
+     */
+    private AssociationImpl createAssociation(String hostAddress, int hostPort, String peerAddress, int peerPort,
+            String assocName, IpChannelType ipChannelType, String[] extraHostAddresses, AssociationIndex batchIndex,
+            Map<String, AssociationImpl> batchAssociations) throws Exception {
         if (hostAddress == null) {
             throw new Exception("Host address cannot be null");
         }
@@ -665,36 +893,85 @@ public class SctpManagementImpl implements Management {
             throw new Exception("Association name cannot be null");
         }
 
-        if(this.associations.containsKey(assocName)) {
-            throw new Exception(String.format("Already has association=%s", assocName));            
+        if (this.associations.containsKey(assocName)
+                || (batchAssociations != null && batchAssociations.containsKey(assocName))) {
+            throw new Exception(String.format("Already has association=%s", assocName));
         }
-        
-        Iterator<Association> iterator=this.associations.values().iterator();
-        while(iterator.hasNext()) {
-            Association associationTemp = iterator.next();
-            
-            if (peerAddress.equals(associationTemp.getPeerAddress()) && associationTemp.getPeerPort() == peerPort && associationTemp.getIpChannelType().equals(ipChannelType)) {
-                throw new Exception(String.format("Already has association=%s with same peer address=%s and port=%d",
-                        associationTemp.getName(), peerAddress, peerPort));
-            }
 
-            if (hostAddress.equals(associationTemp.getHostAddress()) && associationTemp.getHostPort() == hostPort && associationTemp.getIpChannelType().equals(ipChannelType)) {
-                throw new Exception(String.format("Already has association=%s with same host address=%s and port=%d",
-                        associationTemp.getName(), hostAddress, hostPort));
-            }
+        AssociationImpl associationTemp = this.associationIndex.findByPeer(peerAddress, peerPort, ipChannelType, null);
+        if (associationTemp == null && batchIndex != null)
+            associationTemp = batchIndex.findByPeer(peerAddress, peerPort, ipChannelType, null);
+        if (associationTemp != null) {
+            throw new Exception(String.format("Already has association=%s with same peer address=%s and port=%d",
+                    associationTemp.getName(), peerAddress, peerPort));
+        }
 
+        associationTemp = this.associationIndex.findByHost(hostAddress, hostPort, ipChannelType, null);
+        if (associationTemp == null && batchIndex != null)
+            associationTemp = batchIndex.findByHost(hostAddress, hostPort, ipChannelType, null);
+        if (associationTemp != null) {
+            throw new Exception(String.format("Already has association=%s with same host address=%s and port=%d",
+                    associationTemp.getName(), hostAddress, hostPort));
         }
 
         AssociationImpl association = new AssociationImpl(hostAddress, hostPort, peerAddress, peerPort,
                 assocName, ipChannelType, extraHostAddresses);
         association.setManagement(this);
+        return association;
+    }
+
+    @Override
+    public List<Association> addAssociations(List<AssociationDefinition> definitions) throws Exception {
+        if (!this.started) {
+            throw new Exception(String.format("Management=%s not started", this.name));
+        }
+
+        if (definitions == null) {
+            throw new Exception("Association definitions cannot be null");
+        }
+
+        // validating the whole batch first, the definitions are also checked against each other
+        AssociationIndex batchIndex = new AssociationIndex();
+        Map<String, AssociationImpl> batchAssociations = new LinkedHashMap<String, AssociationImpl>();
+        for (AssociationDefinition definition : definitions) {
+            if (definition == null) {
+                throw new Exception("Association definition cannot be null");
+            }
+
+            AssociationImpl association;
+            if (definition.getType() == AssociationType.SERVER) {
+                association = this.createServerAssociation(definition.getPeerAddress(), definition.getPeerPort(),
+                        definition.getServerName(), definition.getAssocName(), definition.getIpChannelType(),
+                        batchIndex, batchAssociations);
+            } else {
+                association = this.createAssociation(definition.getHostAddress(), definition.getHostPort(),
+                        definition.getPeerAddress(), definition.getPeerPort(), definition.getAssocName(),
+                        definition.getIpChannelType(), definition.getExtraHostAddresses(), batchIndex,
+                        batchAssociations);
+            }
+
+            batchIndex.add(association);
+            batchAssociations.put(association.getName(), association);
+        }
+
+        List<Association> result = new ArrayList<Association>(batchAssociations.size());
+        for (AssociationImpl association : batchAssociations.values()) {
+            this.registerAssociation(association);
+            result.add(association);
+        }
+        return result;
+    }
+
+    private void registerAssociation(AssociationImpl association) {
+        this.associations.put(association.getName(), association);
+        this.associationIndex.add(association);
+        if (association.getAssociationType() == AssociationType.SERVER)
+            ((ServerImpl) this.servers.get(association.getServerName())).addAssociations(association.getName());
 
-        this.associations.put(assocName, association);
-        
         Iterator<ManagementEventListener> manIterator=managementEventListeners.values().iterator();
         while(manIterator.hasNext()) {
             try {
-            	manIterator.next().onAssociationAdded(association);
+                manIterator.next().onAssociationAdded(association);
             } catch (Throwable ee) {
                 logger.error("Exception while invoking onAssociationAdded", ee);
             }
@@ -704,8 +981,6 @@ public class SctpManagementImpl implements Management {
             logger.info(String.format("Added Associoation=%s of type=%s", association.getName(),
                     association.getAssociationType()));
         }
-
-        return association;
     }
 
     /*
@@ -734,6 +1009,15 @@ public class SctpManagementImpl implements Management {
         }
 
         this.associations.remove(assocName);
+        this.associationIndex.remove((AssociationImpl) association);
+
+        for (AssociationGroupImpl group : ((AssociationImpl) association).getGroups()) {
+            try {
+                group.removeAssociation(assocName);
+            } catch (Exception e) {
+                // already removed from the group
+            }
+        }
         
         if (((AssociationImpl) association).getAssociationType() == AssociationType.SERVER) {
         	Server serverTemp = this.servers.get(association.getServerName());
@@ -782,6 +1066,86 @@ public class SctpManagementImpl implements Management {
         return routeTmp;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Management#addAssociationGroup(java.lang.String)
+     */
+    @Override
+    public AssociationGroup addAssociationGroup(String groupName) throws Exception {
+        if (!this.started) {
+            throw new Exception(String.format("Management=%s not started", this.name));
+        }
+
+        if (groupName == null) {
+            throw new Exception("AssociationGroup name cannot be null");
+        }
+
+        AssociationGroupImpl group = new AssociationGroupImpl(groupName, this);
+        if (this.associationGroups.putIfAbsent(groupName, group) != null) {
+            throw new Exception(String.format("Already has AssociationGroup=%s", groupName));
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info(String.format("Added AssociationGroup=%s", groupName));
+        }
+
+        return group;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Management#removeAssociationGroup(java.lang.String)
+     */
+    @Override
+    public void removeAssociationGroup(String groupName) throws Exception {
+        if (!this.started) {
+            throw new Exception(String.format("Management=%s not started", this.name));
+        }
+
+        if (groupName == null) {
+            throw new Exception("AssociationGroup name cannot be null");
+        }
+
+        AssociationGroupImpl group = this.associationGroups.remove(groupName);
+        if (group == null) {
+            throw new Exception(String.format("No AssociationGroup found for name=%s", groupName));
+        }
+
+        group.removeAll();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Management#getAssociationGroup(java.lang.String)
+     */
+    @Override
+    public AssociationGroup getAssociationGroup(String groupName) throws Exception {
+        if (groupName == null) {
+            throw new Exception("AssociationGroup name cannot be null");
+        }
+
+        AssociationGroup group = this.associationGroups.get(groupName);
+        if (group == null) {
+            throw new Exception(String.format("No AssociationGroup found for name=%s", groupName));
+        }
+        return group;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.protocols.api.Management#getAssociationGroups()
+     */
+    @Override
+    public Map<String, AssociationGroup> getAssociationGroups() {
+        Map<String, AssociationGroup> groupsTmp = new HashMap<String, AssociationGroup>();
+        groupsTmp.putAll(this.associationGroups);
+        return groupsTmp;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -818,6 +1182,10 @@ public class SctpManagementImpl implements Management {
      */
     @Override
     public void stopAssociation(String assocName) throws Exception {
+        this.doStopAssociation(assocName);
+    }
+
+    private ChannelFuture doStopAssociation(String assocName) throws Exception {
         if (!this.started) {
             throw new Exception(String.format("Management=%s not started", this.name));
         }
@@ -832,7 +1200,85 @@ public class SctpManagementImpl implements Management {
             throw new Exception(String.format("No Association found for name=%s", assocName));
         }
 
-        ((AssociationImpl) association).stop();
+        return ((AssociationImpl) association).stop();
+    }
+
+    @Override
+    public CompletableFuture<Void> startAssociations(Collection<String> assocNames) {
+        return this.runInParallel(assocNames, false, new ParallelOperation() {
+            @Override
+            public Future<?> run(String assocName) throws Exception {
+                startAssociation(assocName);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> stopAssociations(Collection<String> assocNames) {
+        return this.runInParallel(assocNames, false, new ParallelOperation() {
+            @Override
+            public Future<?> run(String assocName) throws Exception {
+                return doStopAssociation(assocName);
+            }
+        });
+    }
+
+    /**
+     * Runs the operation for every name. The operations that wait for the channels are run on the client executor, the
+     * operations that only trigger the channel actions are run by the caller. The returned future is completed when all
+     * the operations and the channel closes they returned are done
+     */
+    private CompletableFuture<Void> runInParallel(Collection<String> names, boolean blocking,
+            final ParallelOperation operation) {
+        List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>(names.size());
+        for (final String name : names) {
+            final CompletableFuture<Void> future = new CompletableFuture<Void>();
+            futures.add(future);
+
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Future<?> closeFuture = operation.run(name);
+                        if (closeFuture == null) {
+                            future.complete(null);
+                            return;
+                        }
+
+                        closeFuture.addListener(new GenericFutureListener<Future<Object>>() {
+                            @Override
+                            public void operationComplete(Future<Object> closed) {
+                                future.complete(null);
+                            }
+                        });
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            };
+
+            try {
+                if (!this.started)
+                    throw new Exception(String.format("Management=%s not started", this.name));
+
+                if (blocking)
+                    this.clientExecutor.execute(task);
+                else
+                    task.run();
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+    }
+
+    private interface ParallelOperation {
+        /**
+         * @return the close future to wait for, null if the operation is already completed
+         */
+        Future<?> run(String name) throws Exception;
     }
 
     /*
@@ -858,6 +1304,157 @@ public class SctpManagementImpl implements Management {
         this.connectDelay = connectDelay;
     }
 
+    @Override
+    public int getConnectTimeout() {
+        return this.connectTimeout;
+    }
+
+    @Override
+    public void setConnectTimeout(int connectTimeout) throws Exception {
+        if (connectTimeout < 1)
+            throw new Exception("ConnectTimeout cannot be less than 1");
+
+        this.connectTimeout = connectTimeout;
+    }
+
+    @Override
+    public double getConnectDelayMultiplier() {
+        return this.connectDelayMultiplier;
+    }
+
+    @Override
+    public void setConnectDelayMultiplier(double connectDelayMultiplier) throws Exception {
+        if (connectDelayMultiplier < 1)
+            throw new Exception("ConnectDelayMultiplier cannot be less than 1");
+
+        this.connectDelayMultiplier = connectDelayMultiplier;
+    }
+
+    @Override
+    public int getMaxConnectDelay() {
+        return this.maxConnectDelay;
+    }
+
+    @Override
+    public void setMaxConnectDelay(int maxConnectDelay) throws Exception {
+        if (maxConnectDelay < 1)
+            throw new Exception("MaxConnectDelay cannot be less than 1");
+
+        this.maxConnectDelay = maxConnectDelay;
+    }
+
+    @Override
+    public double getConnectDelayJitter() {
+        return this.connectDelayJitter;
+    }
+
+    @Override
+    public void setConnectDelayJitter(double connectDelayJitter) throws Exception {
+        if (connectDelayJitter < 0 || connectDelayJitter > 1)
+            throw new Exception("ConnectDelayJitter must be from 0 to 1");
+
+        this.connectDelayJitter = connectDelayJitter;
+    }
+
+    @Override
+    public int getMaxConnectRate() {
+        return this.maxConnectRate;
+    }
+
+    @Override
+    public void setMaxConnectRate(int maxConnectRate) throws Exception {
+        if (maxConnectRate < 0)
+            throw new Exception("MaxConnectRate cannot be less than 0");
+
+        this.maxConnectRate = maxConnectRate;
+        this.connectRateLimiter = maxConnectRate > 0 ? new TokenBucket(maxConnectRate, maxConnectRate) : null;
+    }
+
+    @Override
+    public long getThrottledConnectAttemptsCount() {
+        return throttledConnectAttempts.get();
+    }
+
+    @Override
+    public int getTimerTickDuration() {
+        return this.timerTickDuration;
+    }
+
+    @Override
+    public void setTimerTickDuration(int timerTickDuration) throws Exception {
+        if (timerTickDuration < 1)
+            throw new Exception("TimerTickDuration cannot be less than 1");
+
+        this.timerTickDuration = timerTickDuration;
+    }
+
+    @Override
+    public int getStopDrainTimeout() {
+        return this.stopDrainTimeout;
+    }
+
+    @Override
+    public void setStopDrainTimeout(int stopDrainTimeout) throws Exception {
+        if (stopDrainTimeout < 0)
+            throw new Exception("StopDrainTimeout cannot be less than 0");
+
+        this.stopDrainTimeout = stopDrainTimeout;
+    }
+
+    @Override
+    public long getDrainedOnStopMessagesCount() {
+        return drainedOnStopMessages.get();
+    }
+
+    @Override
+    public long getDrainedOnStopBytesCount() {
+        return drainedOnStopBytes.get();
+    }
+
+    @Override
+    public long getDroppedOnStopMessagesCount() {
+        return droppedOnStopMessages.get();
+    }
+
+    @Override
+    public long getDroppedOnStopBytesCount() {
+        return droppedOnStopBytes.get();
+    }
+
+    /**
+     * Returns the delay before the next connection attempt of a client association
+     *
+     * @param attempt the count of the failed attempts since the association was up
+     * @return the delay in milliseconds
+     */
+    protected long calculateConnectDelay(int attempt) {
+        double delay = this.connectDelay;
+        if (this.connectDelayMultiplier > 1)
+            delay = Math.min(this.maxConnectDelay, delay * Math.pow(this.connectDelayMultiplier, attempt));
+
+        if (this.connectDelayJitter > 0)
+            delay -= delay * this.connectDelayJitter * ThreadLocalRandom.current().nextDouble();
+
+        return (long) delay;
+    }
+
+    /**
+     * Takes the permit of a client connection attempt from the management wide connect rate limit
+     *
+     * @return the delay in nanoseconds the attempt has to wait for, 0 if it can be started now
+     */
+    protected long reserveConnectPermit() {
+        TokenBucket limiter = this.connectRateLimiter;
+        if (limiter == null)
+            return 0;
+
+        long delay = limiter.reserve();
+        if (delay > 0)
+            throttledConnectAttempts.incrementAndGet();
+
+        return delay;
+    }
+
     @Override
     public Boolean getOptionSctpDisableFragments() {
         return optionSctpDisableFragments;
@@ -962,6 +1559,293 @@ public class SctpManagementImpl implements Management {
         // this parameter is only needed for non-netty version
     }
 
+    @Override
+    public boolean isFlushConsolidationEnabled() {
+        return flushConsolidationEnabled;
+    }
+
+    @Override
+    public void setFlushConsolidationEnabled(boolean flushConsolidationEnabled) {
+        this.flushConsolidationEnabled = flushConsolidationEnabled;
+    }
+
+    @Override
+    public int getFlushConsolidationMaxPendingWrites() {
+        return flushConsolidationMaxPendingWrites;
+    }
+
+    @Override
+    public void setFlushConsolidationMaxPendingWrites(int flushConsolidationMaxPendingWrites) throws Exception {
+        if (flushConsolidationMaxPendingWrites < 1)
+            throw new Exception("FlushConsolidationMaxPendingWrites cannot be less than 1");
+
+        this.flushConsolidationMaxPendingWrites = flushConsolidationMaxPendingWrites;
+    }
+
+    @Override
+    public long getFlushRequestsCount() {
+        return flushRequests.get();
+    }
+
+    @Override
+    public long getSavedFlushesCount() {
+        // performed flushes are read first so the result can not become negative
+        long performed = performedFlushes.get();
+        return flushRequests.get() - performed;
+    }
+
+    @Override
+    public int getCongestionLowWatermark() {
+        return congestionWatermark.low();
+    }
+
+    @Override
+    public int getCongestionHighWatermark() {
+        return congestionWatermark.high();
+    }
+
+    protected WriteBufferWaterMark getCongestionWatermark() {
+        return congestionWatermark;
+    }
+
+    @Override
+    public void setCongestionWatermarks(int lowWatermark, int highWatermark) throws Exception {
+        if (lowWatermark < 0)
+            throw new Exception("Congestion low watermark cannot be less than 0");
+        if (highWatermark < 1 || highWatermark < lowWatermark)
+            throw new Exception("Congestion high watermark must be greater than 0 and cannot be less than low watermark");
+
+        this.congestionWatermark = new WriteBufferWaterMark(lowWatermark, highWatermark);
+    }
+
+    @Override
+    public CongestionPolicy getCongestionPolicy() {
+        return congestionPolicy;
+    }
+
+    @Override
+    public void setCongestionPolicy(CongestionPolicy congestionPolicy) {
+        if (congestionPolicy == null)
+            congestionPolicy = CongestionPolicy.NONE;
+
+        this.congestionPolicy = congestionPolicy;
+    }
+
+    @Override
+    public int getCongestionPolicyLevel() {
+        return congestionPolicyLevel;
+    }
+
+    @Override
+    public void setCongestionPolicyLevel(int congestionPolicyLevel) throws Exception {
+        if (congestionPolicyLevel < 1 || congestionPolicyLevel > 3)
+            throw new Exception("Congestion policy level must be from 1 to 3");
+
+        this.congestionPolicyLevel = congestionPolicyLevel;
+    }
+
+    @Override
+    public boolean isSendQueueEnabled() {
+        return sendQueueEnabled;
+    }
+
+    @Override
+    public void setSendQueueEnabled(boolean sendQueueEnabled) {
+        this.sendQueueEnabled = sendQueueEnabled;
+    }
+
+    @Override
+    public int getInboundDispatchThreads() {
+        return inboundDispatchThreads;
+    }
+
+    @Override
+    public synchronized void setInboundDispatchThreads(int inboundDispatchThreads) throws Exception {
+        if (inboundDispatchThreads < 0)
+            throw new Exception("InboundDispatchThreads cannot be less than 0");
+        // the IO threads would deliver while the old threads still deliver the queued messages
+        if (this.started && inboundDispatchThreads == 0 && this.inboundDispatcher != null)
+            throw new Exception("InboundDispatchThreads cannot be set to 0 while the management is started");
+
+        this.inboundDispatchThreads = inboundDispatchThreads;
+        if (this.started && inboundDispatchThreads > 0) {
+            InboundDispatcher oldDispatcher = this.inboundDispatcher;
+            InboundDispatcher newDispatcher = new InboundDispatcher(this, inboundDispatchThreads,
+                    this.inboundDispatchQueueSize);
+            // the new threads start delivering once the old threads have delivered the messages that are already queued
+            if (oldDispatcher != null)
+                newDispatcher.replace(oldDispatcher);
+            this.inboundDispatcher = newDispatcher;
+        }
+    }
+
+    @Override
+    public int getInboundDispatchQueueSize() {
+        return inboundDispatchQueueSize;
+    }
+
+    @Override
+    public void setInboundDispatchQueueSize(int inboundDispatchQueueSize) throws Exception {
+        if (inboundDispatchQueueSize < 16)
+            throw new Exception("InboundDispatchQueueSize cannot be less than 16");
+
+        this.inboundDispatchQueueSize = inboundDispatchQueueSize;
+    }
+
+    protected InboundDispatcher getInboundDispatcher() {
+        return inboundDispatcher;
+    }
+
+    @Override
+    public int getInboundDispatchQueueDepth() {
+        InboundDispatcher dispatcher = this.inboundDispatcher;
+        return dispatcher != null ? dispatcher.getQueueDepth() : 0;
+    }
+
+    @Override
+    public long getInboundDispatchedCount() {
+        return inboundDispatched.get();
+    }
+
+    @Override
+    public long getInboundDispatchWaitTime() {
+        return inboundDispatchWaitTime.get();
+    }
+
+    @Override
+    public long getInboundDispatchMaxWaitTime() {
+        return inboundDispatchMaxWaitTime.get();
+    }
+
+    @Override
+    public long getInboundDispatchRejectedCount() {
+        return inboundDispatchRejected.get();
+    }
+
+    @Override
+    public int getInboundHighWatermark() {
+        return inboundHighWatermark;
+    }
+
+    @Override
+    public int getInboundLowWatermark() {
+        return inboundLowWatermark;
+    }
+
+    @Override
+    public void setInboundWatermarks(int lowWatermark, int highWatermark) throws Exception {
+        if (lowWatermark < 0)
+            throw new Exception("Inbound low watermark cannot be less than 0");
+        if (highWatermark < 0 || (highWatermark > 0 && highWatermark <= lowWatermark))
+            throw new Exception("Inbound high watermark cannot be less than 0 and must be greater than low watermark");
+
+        // the suspended channels are resumed when the count of waiting messages drops to the new low watermark
+        this.inboundLowWatermark = highWatermark > 0 ? lowWatermark : 0;
+        this.inboundHighWatermark = highWatermark;
+    }
+
+    @Override
+    public long getInboundReadSuspendedCount() {
+        return inboundReadSuspended.get();
+    }
+
+    @Override
+    public boolean isReassemblyEnabled() {
+        return reassemblyEnabled;
+    }
+
+    @Override
+    public void setReassemblyEnabled(boolean reassemblyEnabled) {
+        this.reassemblyEnabled = reassemblyEnabled;
+    }
+
+    @Override
+    public int getMaxReassembledMessageSize() {
+        return maxReassembledMessageSize;
+    }
+
+    @Override
+    public void setMaxReassembledMessageSize(int maxReassembledMessageSize) throws Exception {
+        if (maxReassembledMessageSize < 1)
+            throw new Exception("MaxReassembledMessageSize cannot be less than 1");
+
+        this.maxReassembledMessageSize = maxReassembledMessageSize;
+    }
+
+    @Override
+    public long getReassembledMessagesCount() {
+        return reassembledMessages.get();
+    }
+
+    @Override
+    public long getReassemblyFragmentsCount() {
+        return reassemblyFragments.get();
+    }
+
+    @Override
+    public long getReassemblyDroppedCount() {
+        return reassemblyDropped.get();
+    }
+
+    @Override
+    public TransportType getTransportType() {
+        return transportType;
+    }
+
+    @Override
+    public void setTransportType(TransportType transportType) throws Exception {
+        if (transportType == null)
+            throw new Exception("TransportType cannot be null");
+
+        this.transportType = transportType;
+    }
+
+    @Override
+    public boolean isNativeTransport() {
+        return nativeTransport;
+    }
+
+    @Override
+    public boolean isLatencyHistogramsEnabled() {
+        return sendLatencyHistogram != null;
+    }
+
+    @Override
+    public synchronized void setLatencyHistogramsEnabled(boolean latencyHistogramsEnabled) {
+        if (latencyHistogramsEnabled == this.isLatencyHistogramsEnabled())
+            return;
+
+        this.sendLatencyHistogram = latencyHistogramsEnabled ? new LatencyHistogram() : null;
+        this.receiveLatencyHistogram = latencyHistogramsEnabled ? new LatencyHistogram() : null;
+    }
+
+    @Override
+    public boolean isAssociationLatencyHistogramsEnabled() {
+        return associationLatencyHistogramsEnabled;
+    }
+
+    @Override
+    public void setAssociationLatencyHistogramsEnabled(boolean associationLatencyHistogramsEnabled) {
+        this.associationLatencyHistogramsEnabled = associationLatencyHistogramsEnabled;
+    }
+
+    @Override
+    public LatencyHistogram getSendLatencyHistogram() {
+        return sendLatencyHistogram;
+    }
+
+    @Override
+    public LatencyHistogram getReceiveLatencyHistogram() {
+        return receiveLatencyHistogram;
+    }
+
+    /**
+     * Returns true if the latencies have to be measured for any of the histograms
+     */
+    protected boolean isLatencyMeasured() {
+        return associationLatencyHistogramsEnabled || sendLatencyHistogram != null;
+    }
+
 	@Override
 	public void modifyServer(String serverName, String hostAddress, Integer port, IpChannelType ipChannelType, Boolean acceptAnonymousConnections, Integer maxConcurrentConnectionsCount, String[] extraHostAddresses)
 			throws Exception {
@@ -1030,46 +1914,51 @@ public class SctpManagementImpl implements Management {
 			throw new Exception(String.format("No Association found for name=%s", assocName));
 		}
 
-		Iterator<Association> iterator=this.associations.values().iterator();	
-		while(iterator.hasNext()) {
-			Association associationTemp = iterator.next();
-			if(!assocName.equals(associationTemp.getName())) {
-				if (peerAddress != null && peerAddress.equals(associationTemp.getPeerAddress()) && associationTemp.getPeerPort() == peerPort) {
-					throw new Exception(String.format("Already has association=%s with same peer address=%s and port=%d", associationTemp.getName(),
-							peerAddress, peerPort));
-				}
+		if (peerAddress != null || peerPort != null) {
+			String newPeerAddress = peerAddress != null ? peerAddress : association.getPeerAddress();
+			int newPeerPort = peerPort != null ? peerPort : association.getPeerPort();
+			Association associationTemp = this.associationIndex.findByPeer(newPeerAddress, newPeerPort, null, association);
+			if (associationTemp != null) {
+				throw new Exception(String.format("Already has association=%s with same peer address=%s and port=%d", associationTemp.getName(),
+						newPeerAddress, newPeerPort));
 			}
 		}
 
-		if(peerAddress!=null)
-			association.setPeerAddress(peerAddress);
-		if(peerPort!= null)
-			association.setPeerPort(peerPort);
-
-		if(serverName!=null && !serverName.equals(association.getServerName()))
-		{
-			Server newServer = this.servers.get(serverName);
-			if (newServer == null) {
-				throw new Exception(String.format("No Server found for name=%s", serverName));
-			}
+		// the index keys are changed, so the association is indexed again even if the modification fails in the middle
+		this.associationIndex.remove(association);
+		try {
+			if(peerAddress!=null)
+				association.setPeerAddress(peerAddress);
+			if(peerPort!= null)
+				association.setPeerPort(peerPort);
 
-			if ((ipChannelType!=null && newServer.getIpChannelType() != ipChannelType)||(ipChannelType==null && newServer.getIpChannelType() != association.getIpChannelType()))
-				throw new Exception(String.format("Server and Accociation has different IP channel type"));
-
-			//remove association from current server
-			association.setServerName(serverName);
-		}
-		else
-		{
-			if(ipChannelType!=null)
+			if(serverName!=null && !serverName.equals(association.getServerName()))
 			{
-				Server serverTemp=this.servers.get(association.getServerName());
-				if(serverTemp!=null && serverTemp.getIpChannelType() != ipChannelType) {
+				Server newServer = this.servers.get(serverName);
+				if (newServer == null) {
+					throw new Exception(String.format("No Server found for name=%s", serverName));
+				}
+
+				if ((ipChannelType!=null && newServer.getIpChannelType() != ipChannelType)||(ipChannelType==null && newServer.getIpChannelType() != association.getIpChannelType()))
 					throw new Exception(String.format("Server and Accociation has different IP channel type"));
-				}							
 
-				association.setIpChannelType(ipChannelType);
+				//remove association from current server
+				association.setServerName(serverName);
+			}
+			else
+			{
+				if(ipChannelType!=null)
+				{
+					Server serverTemp=this.servers.get(association.getServerName());
+					if(serverTemp!=null && serverTemp.getIpChannelType() != ipChannelType) {
+						throw new Exception(String.format("Server and Accociation has different IP channel type"));
+					}							
+
+					association.setIpChannelType(ipChannelType);
+				}
 			}
+		} finally {
+			this.associationIndex.add(association);
 		}
 
 		Iterator<ManagementEventListener> manIterator=managementEventListeners.values().iterator();
@@ -1102,60 +1991,73 @@ public class SctpManagementImpl implements Management {
 			throw new Exception("Association name cannot be null");
 		}
 		
-		Iterator<Association> assIterator=this.associations.values().iterator();
-		while(assIterator.hasNext()) {
-			Association associationTemp = assIterator.next();
-			if(assocName.equals(associationTemp.getName()))
-			    continue;
+		AssociationImpl association = (AssociationImpl) this.associations.get(assocName);
 
-			if (peerAddress !=null && peerAddress.equals(associationTemp.getPeerAddress()) && associationTemp.getPeerPort() == peerPort) {
+		if (association == null) {
+			throw new Exception(String.format("No Association found for name=%s", assocName));
+		}
+
+		if (peerAddress != null || peerPort != null) {
+			String newPeerAddress = peerAddress != null ? peerAddress : association.getPeerAddress();
+			int newPeerPort = peerPort != null ? peerPort : association.getPeerPort();
+			Association associationTemp = this.associationIndex.findByPeer(newPeerAddress, newPeerPort, null, association);
+			if (associationTemp != null) {
 				throw new Exception(String.format("Already has association=%s with same peer address=%s and port=%d", associationTemp.getName(),
-						peerAddress, peerPort));
+						newPeerAddress, newPeerPort));
 			}
+		}
 
-			if (hostAddress !=null && hostAddress.equals(associationTemp.getHostAddress()) && associationTemp.getHostPort() == hostPort) {
+		if (hostAddress != null || hostPort != null) {
+			String newHostAddress = hostAddress != null ? hostAddress : association.getHostAddress();
+			int newHostPort = hostPort != null ? hostPort : association.getHostPort();
+			Association associationTemp = newHostAddress != null ? this.associationIndex.findByHost(newHostAddress,
+					newHostPort, null, association) : null;
+			if (associationTemp != null) {
 				throw new Exception(String.format("Already has association=%s with same host address=%s and port=%d", associationTemp.getName(),
-						hostAddress, hostPort));
+						newHostAddress, newHostPort));
 			}
-
 		}
 
-		AssociationImpl association = (AssociationImpl) this.associations.get(assocName);
-
-		if(hostAddress!=null)
-		{
-			association.setHostAddress(hostAddress);
-			isModified = true;
-		}
+		// the index keys are changed, so the association is indexed again even if the modification fails in the middle
+		this.associationIndex.remove(association);
+		try {
+			if(hostAddress!=null)
+			{
+				association.setHostAddress(hostAddress);
+				isModified = true;
+			}
 
-		if(hostPort!= null)
-		{
-			association.setHostPort(hostPort);
-			isModified = true;
-		}
+			if(hostPort!= null)
+			{
+				association.setHostPort(hostPort);
+				isModified = true;
+			}
 
-		if(peerAddress!=null)
-		{
-			association.setPeerAddress(peerAddress);
-			isModified = true;
-		}
+			if(peerAddress!=null)
+			{
+				association.setPeerAddress(peerAddress);
+				isModified = true;
+			}
 
-		if(peerPort!= null)
-		{
-			association.setPeerPort(peerPort);
-			isModified = true;
-		}
+			if(peerPort!= null)
+			{
+				association.setPeerPort(peerPort);
+				isModified = true;
+			}
 
-		if(ipChannelType!=null)
-		{
-			association.setIpChannelType(ipChannelType);
-			isModified = true;
-		}
+			if(ipChannelType!=null)
+			{
+				association.setIpChannelType(ipChannelType);
+				isModified = true;
+			}
 
-		if(extraHostAddresses!=null)
-		{
-			association.setExtraHostAddresses(extraHostAddresses);
-			isModified = true;
+			if(extraHostAddresses!=null)
+			{
+				association.setExtraHostAddresses(extraHostAddresses);
+				isModified = true;
+			}
+		} finally {
+			this.associationIndex.add(association);
 		}
 
 		if(association.isConnected() && isModified)
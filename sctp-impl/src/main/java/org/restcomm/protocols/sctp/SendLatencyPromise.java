@@ -0,0 +1,78 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.DefaultChannelPromise;
+
+/**
+ * Promise of a sent message that records the time from sending the message till its write completion into the latency
+ * histograms. The promise is its own listener and it is passed to the write in place of the promise that the channel
+ * would create otherwise, so no object is added per sent message. The completion is passed to the stream sent listener
+ * if there is one.
+ *
+ * In the queued send mode the messages are written with the void promise. While the latencies are measured this
+ * promise is put into the send queue in place of the message and the message is written with it when the queue is
+ * drained, so one promise is created per queued message then. The promise of sendAsync() extends this promise and is
+ * queued the same way. A queued promise is failed if its message is released without being written
+ *
+ * @author yulianoifa
+ *
+ */
+class SendLatencyPromise extends DefaultChannelPromise implements ChannelFutureListener {
+    private final AssociationImpl association;
+    private final ChannelFutureListener next;
+    private final long startTime;
+    private final Object message;
+
+    SendLatencyPromise(Channel channel, AssociationImpl association, ChannelFutureListener next, long startTime,
+            Object message) {
+        super(channel);
+        this.association = association;
+        this.next = next;
+        this.startTime = startTime;
+        this.message = message;
+        this.addListener(this);
+    }
+
+    /**
+     * Returns the queued message, null if the promise is not queued
+     */
+    Object getMessage() {
+        return message;
+    }
+
+    long getStartTime() {
+        return startTime;
+    }
+
+    @Override
+    public void operationComplete(ChannelFuture future) throws Exception {
+        if (future.isSuccess())
+            association.recordSendLatency(startTime);
+
+        if (next != null)
+            next.operationComplete(future);
+    }
+}
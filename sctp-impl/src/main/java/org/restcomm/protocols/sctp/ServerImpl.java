@@ -25,9 +25,13 @@ package org.restcomm.protocols.sctp;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -39,12 +43,18 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.channel.sctp.SctpChannelOption;
 import io.netty.channel.sctp.SctpServerChannel;
 import io.netty.channel.sctp.nio.NioSctpServerChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.concurrent.PromiseCombiner;
 
 /**
  * @author <a href="mailto:amit.bhayani@telestax.com">Amit Bhayani</a>
@@ -55,6 +65,8 @@ public class ServerImpl implements Server {
 
     private static final Logger logger = LogManager.getLogger(ServerImpl.class.getName());
 
+    static final long CLOSE_TIMEOUT = 5000;
+
     private String name;
     private String hostAddress;
     private int hostport;
@@ -68,11 +80,24 @@ public class ServerImpl implements Server {
 
     protected ConcurrentHashMap<String,String> associations = new ConcurrentHashMap<String,String>();
     protected ConcurrentHashMap<String,Association> anonymAssociations = new ConcurrentHashMap<String,Association>();
+    // anonymous connections that are admitted and not closed yet, including the ones waiting for ServerListener
+    private final AtomicInteger anonymConnections = new AtomicInteger(0);
+    private volatile int maxAcceptRate = 0;
+    private volatile TokenBucket acceptRateLimiter = null;
+
+    private final AtomicLong acceptedConnections = new AtomicLong(0);
+    private final AtomicLong rejectedConnections = new AtomicLong(0);
+    private final AtomicLong throttledConnections = new AtomicLong(0);
+
+    private volatile int backlog = 100;
+    private volatile int acceptorsCount = 1;
 
     // Netty declarations
     // The channel on which we'll accept connections
     private SctpServerChannel serverChannelSctp;
-    private NioServerSocketChannel serverChannelTcp;
+    private ServerSocketChannel serverChannelTcp;
+    // the sockets bound to the same address with SO_REUSEPORT in addition to serverChannelTcp
+    private final List<ServerSocketChannel> extraServerChannelsTcp = new ArrayList<ServerSocketChannel>();
 
     /**
      * 
@@ -148,6 +173,102 @@ public class ServerImpl implements Server {
         this.maxConcurrentConnectionsCount = val;
     }
 
+    @Override
+    public int getMaxAcceptRate() {
+        return this.maxAcceptRate;
+    }
+
+    @Override
+    public void setMaxAcceptRate(int val) {
+        this.maxAcceptRate = val;
+        this.acceptRateLimiter = val > 0 ? new TokenBucket(val, val) : null;
+    }
+
+    @Override
+    public long getAcceptedConnectionsCount() {
+        return this.acceptedConnections.get();
+    }
+
+    @Override
+    public long getRejectedConnectionsCount() {
+        return this.rejectedConnections.get();
+    }
+
+    @Override
+    public long getThrottledConnectionsCount() {
+        return this.throttledConnections.get();
+    }
+
+    @Override
+    public int getBacklog() {
+        return this.backlog;
+    }
+
+    @Override
+    public void setBacklog(int backlog) throws Exception {
+        if (backlog < 1)
+            throw new Exception("Backlog cannot be less than 1");
+
+        this.backlog = backlog;
+    }
+
+    @Override
+    public int getAcceptorsCount() {
+        return this.acceptorsCount;
+    }
+
+    @Override
+    public void setAcceptorsCount(int acceptorsCount) throws Exception {
+        if (acceptorsCount < 1)
+            throw new Exception("AcceptorsCount cannot be less than 1");
+
+        this.acceptorsCount = acceptorsCount;
+    }
+
+    /**
+     * Checks the accept rate of anonymous connections
+     *
+     * @return false if the connection must be throttled
+     */
+    protected boolean acquireAcceptPermit() {
+        TokenBucket limiter = this.acceptRateLimiter;
+        if (limiter != null && !limiter.tryAcquire()) {
+            this.throttledConnections.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reserves the place for a new anonymous connection, the place must be released with
+     * {@link #releaseAnonymConnection()} once the connection is closed
+     *
+     * @return false if the limit of concurrent connections is reached
+     */
+    protected boolean acquireAnonymConnection() {
+        int count;
+        do {
+            count = this.anonymConnections.get();
+            if (this.maxConcurrentConnectionsCount > 0 && count >= this.maxConcurrentConnectionsCount) {
+                this.rejectedConnections.incrementAndGet();
+                return false;
+            }
+        } while (!this.anonymConnections.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    protected void releaseAnonymConnection() {
+        this.anonymConnections.decrementAndGet();
+    }
+
+    protected void onConnectionAccepted() {
+        this.acceptedConnections.incrementAndGet();
+    }
+
+    protected void onConnectionRejected() {
+        this.rejectedConnections.incrementAndGet();
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -253,7 +374,12 @@ public class ServerImpl implements Server {
         }
     }
 
-    protected void stop() throws Exception {
+    /**
+     * Closes the server channels without waiting for the close
+     *
+     * @return the future that is completed once all the server channels are closed
+     */
+    protected Future<Void> stop() throws Exception {
         Iterator<String> tempAssociations = associations.values().iterator();
         while(tempAssociations.hasNext()) {
             String assocName = tempAssociations.next();
@@ -276,28 +402,52 @@ public class ServerImpl implements Server {
             logger.info(String.format("Stoped Server=%s", this.name));
         }
 
-        // Stop underlying channel and wait till its done
-        if (this.getIpChannel() != null) {
-            try {
-                this.getIpChannel().close().sync();
-            } catch (Exception e) {
-                logger.warn(String.format("Error while stopping the Server=%s", this.name), e);
+        // Stop underlying channels, all of them are closed at once and their closes are combined into one future
+        PromiseCombiner combiner = new PromiseCombiner(ImmediateEventExecutor.INSTANCE);
+        if (this.getIpChannel() != null)
+            combiner.add(this.getIpChannel().close());
+
+        for (ServerSocketChannel channel : this.extraServerChannelsTcp)
+            combiner.add(channel.close());
+        this.extraServerChannelsTcp.clear();
+
+        Promise<Void> closeFuture = ImmediateEventExecutor.INSTANCE.newPromise();
+        closeFuture.addListener(new GenericFutureListener<Future<Void>>() {
+            @Override
+            public void operationComplete(Future<Void> future) {
+                if (!future.isSuccess())
+                    logger.warn(String.format("Error while stopping the Server=%s", name), future.cause());
             }
-        }
+        });
+        combiner.finish(closeFuture);
+        return closeFuture;
     }
 
     private void initSocket() throws Exception {
         ServerBootstrap b = new ServerBootstrap();
-        b.group(this.management.getBossGroup(), this.management.getWorkerGroup());
+        int acceptors = 1;
+        b.group(this.management.getBossGroup(this.ipChannelType), this.management.getWorkerGroup(this.ipChannelType));
+        b.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, this.management.getCongestionWatermark());
         if (this.ipChannelType == IpChannelType.SCTP) {
             b.channel(NioSctpServerChannel.class);
-            b.option(ChannelOption.SO_BACKLOG, 100);
+            b.option(ChannelOption.SO_BACKLOG, this.backlog);
             b.childHandler(new NettySctpServerChannelInitializer(this, this.management));
             this.applySctpOptions(b);
         } else {
-            b.channel(NioServerSocketChannel.class);
-            b.option(ChannelOption.SO_BACKLOG, 100);
+            b.channel(this.management.getTcpServerChannelClass());
+            b.option(ChannelOption.SO_BACKLOG, this.backlog);
             b.childHandler(new NettyTcpServerChannelInitializer(this, this.management));
+
+            if (this.acceptorsCount > 1) {
+                if (this.management.isNativeTransport()) {
+                    acceptors = this.acceptorsCount;
+                    b.option(EpollChannelOption.SO_REUSEPORT, true);
+                } else {
+                    logger.warn(String.format(
+                            "Server=%s binds one socket instead of %d, SO_REUSEPORT requires the native transport",
+                            this.name, this.acceptorsCount));
+                }
+            }
         }
         b.handler(new LoggingHandler(LogLevel.INFO));
 
@@ -326,10 +476,24 @@ public class ServerImpl implements Server {
                 logger.info(String.format("SctpServerChannel bound to=%s ", this.serverChannelSctp.allLocalAddresses()));
             }
         } else {
-            this.serverChannelTcp = (NioServerSocketChannel) channelFuture.channel();
+            this.serverChannelTcp = (ServerSocketChannel) channelFuture.channel();
+
+            // the bootstrap registers each socket in the next boss thread
+            try {
+                for (int i = 1; i < acceptors; i++)
+                    this.extraServerChannelsTcp.add((ServerSocketChannel) b.bind(localAddress).sync().channel());
+            } catch (Exception e) {
+                // the server is not started, so the already bound sockets are closed
+                this.serverChannelTcp.close();
+                for (ServerSocketChannel channel : this.extraServerChannelsTcp)
+                    channel.close();
+                this.extraServerChannelsTcp.clear();
+                throw e;
+            }
 
             if (logger.isInfoEnabled()) {
-                logger.info(String.format("ServerSocketChannel bound to=%s ", this.serverChannelTcp.localAddress()));
+                logger.info(String.format("ServerSocketChannel bound to=%s acceptors=%d",
+                        this.serverChannelTcp.localAddress(), acceptors));
             }
         }
     }
@@ -0,0 +1,95 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+/**
+ * Token bucket rate limiter. The bucket is refilled with the rate tokens per second up to the burst size, each permitted
+ * operation takes one token. The bucket is full when created
+ *
+ * @author yulianoifa
+ *
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1000000000d;
+
+    private final int rate;
+    private final int burst;
+
+    private double tokens;
+    private long lastRefillTime;
+
+    public TokenBucket(int rate, int burst) {
+        if (rate < 1)
+            throw new IllegalArgumentException("Rate must be greater than 0");
+        if (burst < 1)
+            throw new IllegalArgumentException("Burst must be greater than 0");
+
+        this.rate = rate;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefillTime = System.nanoTime();
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Takes one token if available
+     *
+     * @return false if the operation exceeds the rate and must be throttled
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1)
+            return false;
+
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Takes one token even if the bucket is empty, in this case the operation has to wait till the token is refilled.
+     * The next operations wait for their own tokens, so the operations are spread evenly
+     *
+     * @return the delay in nanoseconds, 0 if the token was available
+     */
+    public synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        if (tokens >= 0)
+            return 0;
+
+        return (long) (-tokens * NANOS_PER_SECOND / rate);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillTime) * rate / NANOS_PER_SECOND);
+        lastRefillTime = now;
+    }
+}
@@ -0,0 +1,93 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the sent statistics of an association that is updated by many sending threads when the counters are kept as
+ * AtomicLong, as LongAdder and as AssociationStatistics. Each invocation counts one sent message with its bytes, like
+ * send() does.
+ *
+ * Run with: mvn test-compile, then java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ * org.restcomm.protocols.sctp.AssociationCountersBenchmark
+ *
+ * @author yulianoifa
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class AssociationCountersBenchmark {
+
+    private static final int MESSAGE_SIZE = 272;
+
+    private final AtomicLong atomicPacketsSent = new AtomicLong(0);
+    private final AtomicLong atomicBytesSent = new AtomicLong(0);
+
+    private final LongAdder adderPacketsSent = new LongAdder();
+    private final LongAdder adderBytesSent = new LongAdder();
+
+    private final AssociationStatistics statistics = new AssociationStatistics();
+
+    @Benchmark
+    public void atomicLong() {
+        atomicPacketsSent.addAndGet(1);
+        atomicBytesSent.addAndGet(MESSAGE_SIZE);
+    }
+
+    @Benchmark
+    public void longAdder() {
+        adderPacketsSent.add(1);
+        adderBytesSent.add(MESSAGE_SIZE);
+    }
+
+    @Benchmark
+    public void associationStatistics() {
+        statistics.add(AssociationStatistics.PACKETS_SENT, 1);
+        statistics.add(AssociationStatistics.BYTES_SENT, MESSAGE_SIZE);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(AssociationCountersBenchmark.class.getSimpleName()).build()).run();
+    }
+}
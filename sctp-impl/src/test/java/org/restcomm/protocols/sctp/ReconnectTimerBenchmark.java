@@ -0,0 +1,148 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * Compares the scheduling of the reconnect timers on the ScheduledThreadPoolExecutor with the hashed wheel timer. Both
+ * timers hold 50000 pending reconnect timers. The plain benchmarks schedule a new reconnect timer and cancel it, like an
+ * association that is scheduled for reconnect and then started or removed. The expiring benchmarks schedule the timers
+ * that expire within a second, so the timer thread fires them while the new ones are scheduled.
+ *
+ * Run with: mvn test-compile, then java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ * org.restcomm.protocols.sctp.ReconnectTimerBenchmark
+ *
+ * @author yulianoifa
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ReconnectTimerBenchmark {
+
+    private static final int PENDING_TIMERS = 50000;
+    // the pending timers do not expire while the benchmark runs
+    private static final long MIN_DELAY = TimeUnit.MINUTES.toMillis(10);
+    private static final long MAX_DELAY = TimeUnit.MINUTES.toMillis(20);
+    // the reconnect timers that expire while the benchmark runs
+    private static final long SHORT_MIN_DELAY = 100;
+    private static final long SHORT_MAX_DELAY = 1000;
+
+    private static final Runnable RECONNECT = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private static final TimerTask RECONNECT_TASK = new TimerTask() {
+        @Override
+        public void run(Timeout timeout) {
+        }
+    };
+
+    private ScheduledThreadPoolExecutor executor;
+    private HashedWheelTimer timer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = new ScheduledThreadPoolExecutor(4, new DefaultThreadFactory("ReconnectTimerBenchmark-executor"));
+        // without it the cancelled tasks stay in the queue till their delay expires
+        executor.setRemoveOnCancelPolicy(true);
+        timer = new HashedWheelTimer(new DefaultThreadFactory("ReconnectTimerBenchmark-timer"), 10,
+                TimeUnit.MILLISECONDS, 512);
+
+        for (int i = 0; i < PENDING_TIMERS; i++) {
+            executor.schedule(RECONNECT, randomDelay(), TimeUnit.MILLISECONDS);
+            timer.newTimeout(RECONNECT_TASK, randomDelay(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        timer.stop();
+    }
+
+    @Benchmark
+    public boolean scheduledExecutor() {
+        ScheduledFuture<?> future = executor.schedule(RECONNECT, randomDelay(), TimeUnit.MILLISECONDS);
+        return future.cancel(false);
+    }
+
+    @Benchmark
+    public boolean hashedWheelTimer() {
+        Timeout timeout = timer.newTimeout(RECONNECT_TASK, randomDelay(), TimeUnit.MILLISECONDS);
+        return timeout.cancel();
+    }
+
+    @Benchmark
+    public ScheduledFuture<?> scheduledExecutorExpiring() {
+        return executor.schedule(RECONNECT, randomShortDelay(), TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    public Timeout hashedWheelTimerExpiring() {
+        return timer.newTimeout(RECONNECT_TASK, randomShortDelay(), TimeUnit.MILLISECONDS);
+    }
+
+    private static long randomDelay() {
+        return ThreadLocalRandom.current().nextLong(MIN_DELAY, MAX_DELAY);
+    }
+
+    private static long randomShortDelay() {
+        return ThreadLocalRandom.current().nextLong(SHORT_MIN_DELAY, SHORT_MAX_DELAY);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ReconnectTimerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,142 @@
+package org.restcomm.protocols.sctp;
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Compares the per message writeAndFlush from application threads with the queued send that is drained by the channel
+ * event loop. Each invocation sends a batch of messages and waits till the peer has received all the messages sent so
+ * far, so the score is the end to end throughput with a bounded amount of in flight messages.
+ *
+ * Run with: mvn test-compile, then java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ * org.restcomm.protocols.sctp.SendQueueBenchmark
+ *
+ * @author yulianoifa
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class SendQueueBenchmark {
+
+    private static final int BATCH_SIZE = 64;
+
+    private EventLoopGroup group;
+    private Channel serverChannel;
+    private Channel clientChannel;
+    private NettySctpChannelInboundHandlerAdapter handler;
+
+    private final AtomicLong sent = new AtomicLong(0);
+    private final AtomicLong received = new AtomicLong(0);
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        group = new DefaultEventLoopGroup(1);
+        LocalAddress address = new LocalAddress("SendQueueBenchmark");
+
+        ServerBootstrap sb = new ServerBootstrap();
+        sb.group(group).channel(LocalServerChannel.class).childHandler(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                received.incrementAndGet();
+                ReferenceCountUtil.release(msg);
+            }
+        });
+        serverChannel = sb.bind(address).sync().channel();
+
+        handler = new NettySctpChannelInboundHandlerAdapter();
+        Bootstrap b = new Bootstrap();
+        b.group(group).channel(LocalChannel.class).handler(handler);
+        clientChannel = b.connect(address).sync().channel();
+        handler.channel = clientChannel;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        clientChannel.close().sync();
+        serverChannel.close().sync();
+        group.shutdownGracefully().sync();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void writeAndFlush() {
+        long target = sent.addAndGet(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++)
+            handler.writeAndFlush(Unpooled.EMPTY_BUFFER);
+        awaitReceived(target);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void queued() {
+        long target = sent.addAndGet(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++)
+            handler.enqueue(Unpooled.EMPTY_BUFFER);
+        awaitReceived(target);
+    }
+
+    private void awaitReceived(long target) {
+        while (received.get() < target)
+            Thread.yield();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(SendQueueBenchmark.class.getSimpleName()).build()).run();
+    }
+}
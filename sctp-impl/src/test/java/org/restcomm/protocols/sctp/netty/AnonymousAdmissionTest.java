@@ -0,0 +1,211 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.IpChannelType;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.Server;
+import org.restcomm.protocols.api.ServerListener;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class AnonymousAdmissionTest implements ServerListener {
+    private static final Logger logger = LogManager.getLogger(AnonymousAdmissionTest.class);
+
+    private static final String SERVER_NAME = "testserver";
+    private static final String SERVER_HOST = "127.0.0.1";
+    private static final int SERVER_PORT = 2390;
+    private static final String CLIENT_HOST = "127.0.0.1";
+
+    private static final String LISTENER_THREAD_PREFIX = "AnonymousAdmission";
+    private static final int CLIENTS = 3;
+
+    private final CopyOnWriteArrayList<String> listenerThreads = new CopyOnWriteArrayList<String>();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + AnonymousAdmissionTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + AnonymousAdmissionTest.class.getName());
+    }
+
+    @Test
+    public void testAcceptRateTcp() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(new DefaultThreadFactory(LISTENER_THREAD_PREFIX));
+        SctpManagementImpl management = new SctpManagementImpl("AnonymousAdmissionTest", 1, 1, 1);
+        management.start();
+        management.removeAllResourses();
+        management.setServerListener(this);
+        management.setServerListenerExecutor(executor);
+
+        Server server = management.addServer(SERVER_NAME, SERVER_HOST, SERVER_PORT, IpChannelType.TCP, true, 0, null);
+        server.setMaxAcceptRate(1);
+        management.startServer(SERVER_NAME);
+
+        // the clients of different managements, since they all use any local port
+        SctpManagementImpl[] clients = new SctpManagementImpl[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = new SctpManagementImpl("AnonymousAdmissionTest-client" + i, 1, 1, 1);
+            clients[i].start();
+            clients[i].setConnectDelay(1000);
+            clients[i].removeAllResourses();
+            Association association = clients[i].addAssociation(CLIENT_HOST, 0, SERVER_HOST, SERVER_PORT, "client" + i,
+                    IpChannelType.TCP, null);
+            association.setAssociationListener(new EmptyListener());
+        }
+
+        for (int i = 0; i < CLIENTS; i++)
+            clients[i].startAssociation("client" + i);
+
+        // one connection per second is accepted, the throttled clients reconnect
+        for (int i = 0; i < 20 && server.getAnonymAssociations().size() < CLIENTS; i++)
+            Thread.sleep(500);
+
+        assertEquals(CLIENTS, server.getAnonymAssociations().size());
+        assertEquals(CLIENTS, server.getAcceptedConnectionsCount());
+        assertTrue(server.getThrottledConnectionsCount() > 0);
+        assertEquals(0, server.getRejectedConnectionsCount());
+        assertEquals(CLIENTS, listenerThreads.size());
+        for (String threadName : listenerThreads)
+            assertTrue(threadName.startsWith(LISTENER_THREAD_PREFIX));
+
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i].stopAssociation("client" + i);
+            clients[i].removeAllResourses();
+            clients[i].stop();
+        }
+
+        management.stopServer(SERVER_NAME);
+        management.removeAllResourses();
+        management.stop();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testConnectionLimitTcp() throws Exception {
+        SctpManagementImpl management = new SctpManagementImpl("AnonymousAdmissionTest", 1, 1, 1);
+        management.start();
+        management.removeAllResourses();
+        management.setServerListener(this);
+
+        Server server = management.addServer(SERVER_NAME, SERVER_HOST, SERVER_PORT, IpChannelType.TCP, true, 1, null);
+        management.startServer(SERVER_NAME);
+
+        SctpManagementImpl[] clients = new SctpManagementImpl[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = new SctpManagementImpl("AnonymousAdmissionTest-client" + i, 1, 1, 1);
+            clients[i].start();
+            clients[i].setConnectDelay(1000);
+            clients[i].removeAllResourses();
+            Association association = clients[i].addAssociation(CLIENT_HOST, 0, SERVER_HOST, SERVER_PORT, "client" + i,
+                    IpChannelType.TCP, null);
+            association.setAssociationListener(new EmptyListener());
+            clients[i].startAssociation("client" + i);
+        }
+
+        // the clients over the limit are closed and reconnect
+        for (int i = 0; i < 20 && server.getRejectedConnectionsCount() < CLIENTS - 1; i++)
+            Thread.sleep(500);
+
+        assertEquals(1, server.getAnonymAssociations().size());
+        assertEquals(1, server.getAcceptedConnectionsCount());
+        assertTrue(server.getRejectedConnectionsCount() >= CLIENTS - 1);
+        assertEquals(0, server.getThrottledConnectionsCount());
+
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i].stopAssociation("client" + i);
+            clients[i].removeAllResourses();
+            clients[i].stop();
+        }
+
+        management.stopServer(SERVER_NAME);
+        management.removeAllResourses();
+        management.stop();
+    }
+
+    @Override
+    public void onNewRemoteConnection(Server server, Association association) {
+        listenerThreads.add(Thread.currentThread().getName());
+        try {
+            association.acceptAnonymousAssociation(new EmptyListener());
+        } catch (Exception e) {
+            logger.error("Exception while accepting anonymous association", e);
+        }
+    }
+
+    private class EmptyListener implements AssociationListener {
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
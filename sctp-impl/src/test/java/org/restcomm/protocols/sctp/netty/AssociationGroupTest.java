@@ -0,0 +1,212 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationGroup;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.IpChannelType;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.SendFailedException;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+import io.netty.buffer.Unpooled;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class AssociationGroupTest {
+    private static final Logger logger = LogManager.getLogger(AssociationGroupTest.class);
+
+    private static final String SERVER_NAME_1 = "testserver1";
+    private static final String SERVER_NAME_2 = "testserver2";
+    private static final String SERVER_HOST = "127.0.0.1";
+    private static final int SERVER_PORT_1 = 2370;
+    private static final int SERVER_PORT_2 = 2373;
+    private static final String CLIENT_HOST = "127.0.0.1";
+    private static final int CLIENT_PORT_1 = 2371;
+    private static final int CLIENT_PORT_2 = 2372;
+    private static final String GROUP_NAME = "group";
+
+    private static final byte[] MESSAGE = "Msg!".getBytes();
+
+    private SctpManagementImpl management = null;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.DEBUG);
+        logger.info("Starting " + AssociationGroupTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + AssociationGroupTest.class.getName());
+    }
+
+    @Test
+    public void testLoadSharingTcp() throws Exception {
+        this.management = new SctpManagementImpl("AssociationGroupTest", 1, 1, 1);
+        this.management.start();
+        this.management.setConnectDelay(1000);
+        this.management.removeAllResourses();
+
+        this.management.addServer(SERVER_NAME_1, SERVER_HOST, SERVER_PORT_1, IpChannelType.TCP, false, 0, null);
+        this.management.addServer(SERVER_NAME_2, SERVER_HOST, SERVER_PORT_2, IpChannelType.TCP, false, 0, null);
+        Association serverAssociation1 = this.management.addServerAssociation(CLIENT_HOST, CLIENT_PORT_1, SERVER_NAME_1,
+                "serverAssociation1", IpChannelType.TCP);
+        Association serverAssociation2 = this.management.addServerAssociation(CLIENT_HOST, CLIENT_PORT_2, SERVER_NAME_2,
+                "serverAssociation2", IpChannelType.TCP);
+        Association clientAssociation1 = this.management.addAssociation(CLIENT_HOST, CLIENT_PORT_1, SERVER_HOST,
+                SERVER_PORT_1, "clientAssociation1", IpChannelType.TCP, null);
+        Association clientAssociation2 = this.management.addAssociation(CLIENT_HOST, CLIENT_PORT_2, SERVER_HOST,
+                SERVER_PORT_2, "clientAssociation2", IpChannelType.TCP, null);
+
+        CountingListener serverListener1 = new CountingListener();
+        CountingListener serverListener2 = new CountingListener();
+        serverAssociation1.setAssociationListener(serverListener1);
+        serverAssociation2.setAssociationListener(serverListener2);
+        clientAssociation1.setAssociationListener(new CountingListener());
+        clientAssociation2.setAssociationListener(new CountingListener());
+
+        AssociationGroup group = this.management.addAssociationGroup(GROUP_NAME);
+        group.addAssociation("clientAssociation1", 2);
+        group.addAssociation("clientAssociation2", 1);
+
+        try {
+            group.send(payload());
+            fail("No active association is expected");
+        } catch (SendFailedException e) {
+        }
+
+        this.management.startServer(SERVER_NAME_1);
+        this.management.startServer(SERVER_NAME_2);
+        this.management.startAssociation("serverAssociation1");
+        this.management.startAssociation("serverAssociation2");
+        this.management.startAssociation("clientAssociation1");
+        this.management.startAssociation("clientAssociation2");
+
+        for (int i = 0; i < 20 && group.getActiveAssociations().size() < 2; i++)
+            Thread.sleep(500);
+        assertEquals(2, group.getActiveAssociations().size());
+
+        for (int i = 0; i < 30; i++)
+            group.send(payload());
+        Thread.sleep(1000);
+
+        // weights 2:1
+        assertEquals(20, serverListener1.getMessages());
+        assertEquals(10, serverListener2.getMessages());
+
+        // closing from the server side, so the client port is not left in TIME_WAIT and the client reconnects
+        this.management.stopAssociation("serverAssociation2");
+        for (int i = 0; i < 20 && group.getActiveAssociations().size() > 1; i++)
+            Thread.sleep(500);
+        assertEquals(1, group.getActiveAssociations().size());
+
+        for (int i = 0; i < 9; i++)
+            group.send(payload(), i);
+        Thread.sleep(1000);
+
+        assertEquals(29, serverListener1.getMessages());
+        assertEquals(10, serverListener2.getMessages());
+
+        this.management.startAssociation("serverAssociation2");
+        for (int i = 0; i < 20 && group.getActiveAssociations().size() < 2; i++)
+            Thread.sleep(500);
+        assertEquals(2, group.getActiveAssociations().size());
+
+        this.management.removeAssociationGroup(GROUP_NAME);
+        assertTrue(this.management.getAssociationGroups().isEmpty());
+
+        // closing from the server side first, so the fixed client ports are not left in TIME_WAIT for the next run
+        this.management.stopAssociation("serverAssociation1");
+        this.management.stopAssociation("serverAssociation2");
+        Thread.sleep(500);
+        this.management.stopAssociation("clientAssociation1");
+        this.management.stopAssociation("clientAssociation2");
+        this.management.stopServer(SERVER_NAME_1);
+        this.management.stopServer(SERVER_NAME_2);
+        Thread.sleep(1000);
+
+        this.management.removeAllResourses();
+        this.management.stop();
+    }
+
+    private static PayloadData payload() {
+        return new PayloadData(MESSAGE.length, Unpooled.copiedBuffer(MESSAGE), true, false, 3, 1);
+    }
+
+    private class CountingListener implements AssociationListener {
+        // TCP does not keep message boundaries, so counting the received bytes
+        private final AtomicLong bytes = new AtomicLong(0);
+
+        public long getMessages() {
+            return bytes.get() / MESSAGE.length;
+        }
+
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+            logger.info(association.getName() + " onCommunicationShutdown");
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            bytes.addAndGet(payloadData.getByteBuf().readableBytes());
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertTrue;
+
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.IpChannelType;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.sctp.M3uaTcpFraming;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Test fixture of a server association and a client association that are connected on the local host through a server
+ * of one management. A TCP server association uses the M3UA framing, so each message built by m3uaMessage() is read as
+ * one payload.
+ *
+ * @author yulianoifa
+ *
+ */
+class AssociationPair {
+    static final String SERVER_NAME = "testserver";
+    static final String SERVER_ASSOCIATION = "serverAssociation";
+    static final String CLIENT_ASSOCIATION = "clientAssociation";
+    private static final String HOST = "127.0.0.1";
+
+    private final SctpManagementImpl management;
+    private final IpChannelType ipChannelType;
+    private final int serverPort;
+    private final int clientPort;
+    private Association serverAssociation;
+    private Association clientAssociation;
+
+    AssociationPair(String name, int serverPort, int clientPort) throws Exception {
+        this(name, IpChannelType.TCP, serverPort, clientPort);
+    }
+
+    /**
+     * Creates and starts the management of the pair, it can be configured before the pair is connected
+     *
+     * @param clientPort the port of the client association, 0 for an ephemeral port
+     */
+    AssociationPair(String name, IpChannelType ipChannelType, int serverPort, int clientPort) throws Exception {
+        this.ipChannelType = ipChannelType;
+        this.serverPort = serverPort;
+        this.clientPort = clientPort;
+
+        this.management = new SctpManagementImpl(name, 1, 1, 1);
+        this.management.start();
+        this.management.setConnectDelay(1000);
+        this.management.removeAllResourses();
+    }
+
+    SctpManagementImpl getManagement() {
+        return management;
+    }
+
+    Association getServerAssociation() {
+        return serverAssociation;
+    }
+
+    Association getClientAssociation() {
+        return clientAssociation;
+    }
+
+    /**
+     * Adds and starts the server and both associations and waits till both associations are up
+     */
+    void connect(AssociationListener serverListener, AssociationListener clientListener) throws Exception {
+        this.management.addServer(SERVER_NAME, HOST, this.serverPort, this.ipChannelType, false, 0, null);
+        this.serverAssociation = this.management.addServerAssociation(HOST, this.clientPort, SERVER_NAME,
+                SERVER_ASSOCIATION, this.ipChannelType);
+        this.clientAssociation = this.management.addAssociation(HOST, this.clientPort, HOST, this.serverPort,
+                CLIENT_ASSOCIATION, this.ipChannelType, null);
+
+        if (this.ipChannelType == IpChannelType.TCP)
+            this.serverAssociation.setTcpFraming(new M3uaTcpFraming());
+        this.serverAssociation.setAssociationListener(serverListener);
+        this.clientAssociation.setAssociationListener(clientListener);
+
+        this.management.startServer(SERVER_NAME);
+        this.management.startAssociation(SERVER_ASSOCIATION);
+        this.management.startAssociation(CLIENT_ASSOCIATION);
+
+        for (int i = 0; i < 20 && !(this.serverAssociation.isUp() && this.clientAssociation.isUp()); i++)
+            Thread.sleep(500);
+        assertTrue(this.serverAssociation.isUp() && this.clientAssociation.isUp());
+    }
+
+    /**
+     * Stops the server association before the client association, so a fixed client port is not left in TIME_WAIT
+     * for the next run
+     */
+    void stopAssociations() throws Exception {
+        if (this.serverAssociation != null && this.serverAssociation.isStarted()) {
+            this.management.stopAssociation(SERVER_ASSOCIATION);
+            Thread.sleep(500);
+        }
+        if (this.clientAssociation != null && this.clientAssociation.isStarted())
+            this.management.stopAssociation(CLIENT_ASSOCIATION);
+    }
+
+    /**
+     * Stops the associations, the server and the management
+     */
+    void close() throws Exception {
+        this.stopAssociations();
+        if (this.serverAssociation != null) {
+            this.management.stopServer(SERVER_NAME);
+            Thread.sleep(1000);
+        }
+
+        this.management.removeAllResourses();
+        this.management.stop();
+    }
+
+    /**
+     * Builds an M3UA like message with the message length at offset 4 and the sequence at offset 8 if the message is
+     * long enough
+     */
+    static ByteBuf m3uaMessage(int length, int sequence) {
+        ByteBuf byteBuf = Unpooled.buffer(length);
+        byteBuf.writeInt(0x01000101);
+        byteBuf.writeInt(length);
+        if (length >= 12)
+            byteBuf.writeInt(sequence);
+        if (byteBuf.writerIndex() < length)
+            byteBuf.writeZero(length - byteBuf.writerIndex());
+        return byteBuf;
+    }
+
+    static PayloadData payload(int length, int sequence) {
+        return payload(length, sequence, 1);
+    }
+
+    static PayloadData payload(int length, int sequence, int streamNumber) {
+        return new PayloadData(length, m3uaMessage(length, sequence), true, false, 3, streamNumber);
+    }
+
+    /**
+     * Reads the sequence of a payload built by payload()
+     */
+    static int sequence(PayloadData payloadData) {
+        ByteBuf byteBuf = payloadData.getByteBuf();
+        return byteBuf.getInt(byteBuf.readerIndex() + 8);
+    }
+}
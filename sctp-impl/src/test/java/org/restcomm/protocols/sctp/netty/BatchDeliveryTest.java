@@ -0,0 +1,177 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationBatchListener;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class BatchDeliveryTest {
+    private static final Logger logger = LogManager.getLogger(BatchDeliveryTest.class);
+
+    private static final int SERVER_PORT = 2412;
+    private static final int CLIENT_PORT = 2413;
+
+    private static final int MESSAGE_SIZE = 64;
+    private static final int BATCHES = 100;
+    private static final int BATCH_SIZE = 10;
+
+    private SctpManagementImpl management = null;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + BatchDeliveryTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + BatchDeliveryTest.class.getName());
+    }
+
+    @Test
+    public void testBatchDeliveryTcp() throws Exception {
+        this.testBatchDelivery(0);
+    }
+
+    @Test
+    public void testBatchDeliveryWithDispatchTcp() throws Exception {
+        this.testBatchDelivery(2);
+    }
+
+    private void testBatchDelivery(int inboundDispatchThreads) throws Exception {
+        AssociationPair pair = new AssociationPair("BatchDeliveryTest", SERVER_PORT, CLIENT_PORT);
+        this.management = pair.getManagement();
+        this.management.setInboundDispatchThreads(inboundDispatchThreads);
+
+        BatchListener serverListener = new BatchListener();
+        pair.connect(serverListener, new BatchListener());
+        Association clientAssociation = pair.getClientAssociation();
+
+        int sequence = 0;
+        for (int i = 0; i < BATCHES; i++) {
+            List<PayloadData> batch = new ArrayList<PayloadData>();
+            for (int j = 0; j < BATCH_SIZE; j++)
+                batch.add(payload(sequence++));
+            clientAssociation.send(batch);
+        }
+
+        for (int i = 0; i < 20 && serverListener.getMessages() < sequence; i++)
+            Thread.sleep(500);
+        assertEquals(sequence, serverListener.getMessages());
+        assertEquals(0, serverListener.getOutOfOrder());
+        // all the payloads are delivered in batches, one batch per read cycle
+        assertEquals(0, serverListener.getSinglePayloads());
+        assertTrue(serverListener.getBatches() > 0 && serverListener.getBatches() <= sequence);
+        logger.info("Payloads=" + sequence + " delivered in batches=" + serverListener.getBatches());
+
+        pair.close();
+    }
+
+    private static PayloadData payload(int sequence) {
+        return AssociationPair.payload(MESSAGE_SIZE, sequence);
+    }
+
+    private class BatchListener implements AssociationBatchListener {
+        private final AtomicInteger messages = new AtomicInteger(0);
+        private final AtomicInteger outOfOrder = new AtomicInteger(0);
+        private final AtomicInteger batches = new AtomicInteger(0);
+        private final AtomicInteger singlePayloads = new AtomicInteger(0);
+
+        public int getMessages() {
+            return messages.get();
+        }
+
+        public int getOutOfOrder() {
+            return outOfOrder.get();
+        }
+
+        public int getBatches() {
+            return batches.get();
+        }
+
+        public int getSinglePayloads() {
+            return singlePayloads.get();
+        }
+
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+            logger.info(association.getName() + " onCommunicationShutdown");
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayloads(Association association, List<PayloadData> payloadDatas) {
+            batches.incrementAndGet();
+            for (PayloadData payloadData : payloadDatas) {
+                if (AssociationPair.sequence(payloadData) != messages.getAndIncrement())
+                    outOfOrder.incrementAndGet();
+                payloadData.releaseBuffer();
+            }
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            singlePayloads.incrementAndGet();
+            messages.incrementAndGet();
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
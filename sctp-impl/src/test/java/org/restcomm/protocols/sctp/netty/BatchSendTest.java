@@ -0,0 +1,193 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.SendFailedException;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class BatchSendTest {
+    private static final Logger logger = LogManager.getLogger(BatchSendTest.class);
+
+    private static final int SERVER_PORT = 2406;
+    private static final int CLIENT_PORT = 2407;
+
+    private static final int MESSAGE_SIZE = 64;
+    private static final int BATCHES = 100;
+    private static final int BATCH_SIZE = 10;
+
+    private AssociationPair pair;
+    private Association serverAssociation;
+    private Association clientAssociation;
+    private SequenceListener serverListener;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + BatchSendTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + BatchSendTest.class.getName());
+    }
+
+    public void setUp() throws Exception {
+        this.pair = new AssociationPair("BatchSendTest", SERVER_PORT, CLIENT_PORT);
+        this.serverListener = new SequenceListener();
+        this.pair.connect(this.serverListener, new SequenceListener());
+        this.serverAssociation = this.pair.getServerAssociation();
+        this.clientAssociation = this.pair.getClientAssociation();
+    }
+
+    @Test
+    public void testSendCollectionTcp() throws Exception {
+        this.setUp();
+
+        List<ByteBuf> sent = new ArrayList<ByteBuf>();
+        int sequence = 0;
+        for (int i = 0; i < BATCHES; i++) {
+            List<PayloadData> batch = new ArrayList<PayloadData>();
+            for (int j = 0; j < BATCH_SIZE; j++)
+                batch.add(payload(sequence++, sent));
+            this.clientAssociation.send(batch);
+        }
+
+        // an empty batch is ignored
+        this.clientAssociation.send(new ArrayList<PayloadData>());
+
+        this.checkReceived(sequence, sent);
+        this.pair.close();
+    }
+
+    @Test
+    public void testWriteAndFlushTcp() throws Exception {
+        this.setUp();
+
+        List<ByteBuf> sent = new ArrayList<ByteBuf>();
+        int sequence = 0;
+        for (int i = 0; i < BATCHES; i++) {
+            for (int j = 0; j < BATCH_SIZE; j++)
+                this.clientAssociation.write(payload(sequence++, sent));
+            this.clientAssociation.flush();
+        }
+
+        this.checkReceived(sequence, sent);
+
+        this.pair.stopAssociations();
+        try {
+            this.clientAssociation.flush();
+            fail("Flush must be rejected after the stop");
+        } catch (SendFailedException e) {
+        }
+
+        this.pair.close();
+    }
+
+    private void checkReceived(int messages, List<ByteBuf> sent) throws Exception {
+        for (int i = 0; i < 20 && this.serverListener.getMessages() < messages; i++)
+            Thread.sleep(500);
+        assertEquals(messages, this.serverListener.getMessages());
+        assertEquals(0, this.serverListener.getOutOfOrder());
+
+        // the statistics are updated with the sizes taken before the buffers are handed over
+        assertEquals(messages, this.clientAssociation.getPacketsSentValue());
+        assertEquals((long) messages * MESSAGE_SIZE, this.clientAssociation.getBytesSentValue());
+        assertEquals(messages, this.serverAssociation.getPacketsReceivedValue());
+
+        // the sent buffers are released once they are written
+        for (ByteBuf byteBuf : sent)
+            assertEquals(0, byteBuf.refCnt());
+    }
+
+    private static PayloadData payload(int sequence, List<ByteBuf> sent) {
+        PayloadData payloadData = AssociationPair.payload(MESSAGE_SIZE, sequence);
+        sent.add(payloadData.getByteBuf());
+        return payloadData;
+    }
+
+    private class SequenceListener implements AssociationListener {
+        private final AtomicInteger messages = new AtomicInteger(0);
+        private final AtomicInteger outOfOrder = new AtomicInteger(0);
+
+        public int getMessages() {
+            return messages.get();
+        }
+
+        public int getOutOfOrder() {
+            return outOfOrder.get();
+        }
+
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+            logger.info(association.getName() + " onCommunicationShutdown");
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            if (AssociationPair.sequence(payloadData) != messages.getAndIncrement())
+                outOfOrder.incrementAndGet();
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
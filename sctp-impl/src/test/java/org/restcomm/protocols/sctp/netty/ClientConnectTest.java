@@ -0,0 +1,158 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.IpChannelType;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.Server;
+import org.restcomm.protocols.api.ServerListener;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class ClientConnectTest implements ServerListener {
+    private static final Logger logger = LogManager.getLogger(ClientConnectTest.class);
+
+    private static final String SERVER_NAME = "testserver";
+    private static final int SERVER_PORT = 2405;
+
+    private static final int PARALLEL_CLIENTS = 50;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + ClientConnectTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + ClientConnectTest.class.getName());
+    }
+
+    @Test
+    public void testParallelClientConnectsTcp() throws Exception {
+        SctpManagementImpl management = new SctpManagementImpl("ClientConnectTest", 1, 1, 1);
+        management.start();
+        management.removeAllResourses();
+        management.setServerListener(this);
+
+        // every client uses its own pair of the loopback addresses, so the server listens on all of them
+        management.addServer(SERVER_NAME, "0.0.0.0", SERVER_PORT, IpChannelType.TCP, true, 0, null);
+        management.startServer(SERVER_NAME);
+
+        // a single client executor thread, the connects must not wait for each other
+        SctpManagementImpl client = new SctpManagementImpl("ClientConnectTest-client", 1, 1, 1);
+        client.start();
+        client.setConnectDelay(1000);
+        client.setConnectTimeout(2000);
+        client.removeAllResourses();
+        List<Association> associations = new ArrayList<Association>();
+        for (int i = 0; i < PARALLEL_CLIENTS; i++) {
+            Association association = client.addAssociation("127.0.1." + (i + 1), 0, "127.0.0." + (i + 1), SERVER_PORT,
+                    "client" + i, IpChannelType.TCP, null);
+            association.setAssociationListener(new EmptyListener());
+            associations.add(association);
+        }
+        for (int i = 0; i < PARALLEL_CLIENTS; i++)
+            client.startAssociation("client" + i);
+
+        for (int i = 0; i < 20 && connectedCount(associations) < PARALLEL_CLIENTS; i++)
+            Thread.sleep(250);
+
+        assertEquals(PARALLEL_CLIENTS, connectedCount(associations));
+
+        for (int i = 0; i < PARALLEL_CLIENTS; i++)
+            client.stopAssociation("client" + i);
+        client.removeAllResourses();
+        client.stop();
+
+        management.stopServer(SERVER_NAME);
+        management.removeAllResourses();
+        management.stop();
+    }
+
+    private int connectedCount(List<Association> associations) {
+        int count = 0;
+        for (Association association : associations) {
+            if (association.isConnected())
+                count++;
+        }
+        return count;
+    }
+
+    @Override
+    public void onNewRemoteConnection(Server server, Association association) {
+        try {
+            association.acceptAnonymousAssociation(new EmptyListener());
+        } catch (Exception e) {
+            logger.error("Exception while accepting anonymous association", e);
+        }
+    }
+
+    private class EmptyListener implements AssociationListener {
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
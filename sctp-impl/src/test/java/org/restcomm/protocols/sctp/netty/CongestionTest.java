@@ -0,0 +1,240 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.CongestionPolicy;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.SendFailedException;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+import io.netty.util.concurrent.Future;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class CongestionTest {
+    private static final Logger logger = LogManager.getLogger(CongestionTest.class);
+
+    private static final int SERVER_PORT = 2408;
+    private static final int CLIENT_PORT = 2409;
+
+    private static final int MESSAGE_SIZE = 1000;
+    // more than the socket buffers can keep, so the client queues the messages while the peer does not read
+    private static final int MAX_MESSAGES = 50000;
+    private static final int LOW_WATERMARK = 15000;
+    private static final int HIGH_WATERMARK = 30000;
+
+    private SctpManagementImpl management = null;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + CongestionTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + CongestionTest.class.getName());
+    }
+
+    @Test
+    public void testWatermarks() throws Exception {
+        this.management = new SctpManagementImpl("CongestionTest", 1, 1, 1);
+        this.management.start();
+        this.management.removeAllResourses();
+
+        try {
+            this.management.setCongestionWatermarks(HIGH_WATERMARK, LOW_WATERMARK);
+            fail("Low watermark above the high watermark must be rejected");
+        } catch (Exception e) {
+            assertEquals(Exception.class, e.getClass());
+            assertEquals("Congestion high watermark must be greater than 0 and cannot be less than low watermark",
+                    e.getMessage());
+        }
+        try {
+            this.management.setCongestionPolicyLevel(0);
+            fail("Congestion policy level 0 must be rejected");
+        } catch (Exception e) {
+            assertEquals(Exception.class, e.getClass());
+            assertEquals("Congestion policy level must be from 1 to 3", e.getMessage());
+        }
+
+        this.management.setCongestionWatermarks(LOW_WATERMARK, HIGH_WATERMARK);
+        assertEquals(LOW_WATERMARK, this.management.getCongestionLowWatermark());
+        assertEquals(HIGH_WATERMARK, this.management.getCongestionHighWatermark());
+        assertEquals(CongestionPolicy.NONE, this.management.getCongestionPolicy());
+        assertEquals(3, this.management.getCongestionPolicyLevel());
+
+        this.management.stop();
+    }
+
+    @Test
+    public void testCongestionPolicyTcp() throws Exception {
+        AssociationPair pair = new AssociationPair("CongestionTest", SERVER_PORT, CLIENT_PORT);
+        this.management = pair.getManagement();
+        // the peer stops reading while its listener is blocked
+        this.management.setInboundDispatchThreads(1);
+        this.management.setInboundWatermarks(100, 1000);
+        this.management.setCongestionWatermarks(LOW_WATERMARK, HIGH_WATERMARK);
+
+        BlockingListener serverListener = new BlockingListener();
+        BlockingListener clientListener = new BlockingListener();
+        pair.connect(serverListener, clientListener);
+        Association clientAssociation = pair.getClientAssociation();
+        assertEquals(0, clientAssociation.getCongestionLevel());
+
+        // the level grows by one step per a third of the high watermark
+        int sent = 0;
+        while (sent < MAX_MESSAGES && clientAssociation.getCongestionLevel() < 3) {
+            clientAssociation.send(payload());
+            sent++;
+        }
+        assertEquals(3, clientAssociation.getCongestionLevel());
+        assertTrue(clientListener.getLevels().contains(1));
+        assertTrue(clientListener.getLevels().contains(2));
+        assertTrue(clientListener.getLevels().contains(3));
+
+        // REJECT leaves the payload to the caller
+        this.management.setCongestionPolicy(CongestionPolicy.REJECT);
+        PayloadData rejected = payload();
+        try {
+            clientAssociation.send(rejected);
+            fail("Send must be rejected while congested");
+        } catch (SendFailedException e) {
+        }
+        Future<Void> future = clientAssociation.sendAsync(rejected);
+        assertTrue(future.isDone());
+        assertFalse(future.isSuccess());
+        assertTrue(future.cause() instanceof SendFailedException);
+        assertEquals(1, rejected.getByteBuf().refCnt());
+        rejected.releaseBuffer();
+
+        // DROP releases the payload and counts it
+        this.management.setCongestionPolicy(CongestionPolicy.DROP);
+        PayloadData dropped = payload();
+        clientAssociation.send(dropped);
+        assertEquals(0, dropped.getByteBuf().refCnt());
+        assertEquals(1, clientAssociation.getPacketsDroppedValue());
+
+        // the level goes down once the peer reads the queued messages
+        serverListener.release();
+        for (int i = 0; i < 40 && clientAssociation.getCongestionLevel() > 0; i++)
+            Thread.sleep(500);
+        assertEquals(0, clientAssociation.getCongestionLevel());
+        List<Integer> levels = clientListener.getLevels();
+        assertEquals(Integer.valueOf(0), levels.get(levels.size() - 1));
+
+        // not congested anymore, so the policy is not applied
+        clientAssociation.send(payload());
+        sent++;
+        assertEquals(1, clientAssociation.getPacketsDroppedValue());
+
+        for (int i = 0; i < 40 && serverListener.getMessages() < sent; i++)
+            Thread.sleep(500);
+        assertEquals(sent, serverListener.getMessages());
+
+        this.management.setCongestionPolicy(CongestionPolicy.NONE);
+        pair.close();
+    }
+
+    private static PayloadData payload() {
+        return AssociationPair.payload(MESSAGE_SIZE, 0);
+    }
+
+    private class BlockingListener implements AssociationListener {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicLong messages = new AtomicLong(0);
+        private final List<Integer> levels = new CopyOnWriteArrayList<Integer>();
+
+        public void release() {
+            latch.countDown();
+        }
+
+        public long getMessages() {
+            return messages.get();
+        }
+
+        public List<Integer> getLevels() {
+            return levels;
+        }
+
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+            logger.info(association.getName() + " onCommunicationShutdown");
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onCongestionLevelChanged(Association association, int oldLevel, int newLevel) {
+            levels.add(newLevel);
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+            }
+            messages.incrementAndGet();
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
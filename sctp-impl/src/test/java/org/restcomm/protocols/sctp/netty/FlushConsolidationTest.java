@@ -0,0 +1,95 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.restcomm.protocols.sctp.NettyFlushConsolidationHandler;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class FlushConsolidationTest {
+
+    private static void assertOutbound(EmbeddedChannel channel, int count) {
+        for (int i = 0; i < count; i++) {
+            ByteBuf message = channel.readOutbound();
+            assertEquals(1, message.readableBytes());
+            message.release();
+        }
+        assertNull(channel.readOutbound());
+    }
+
+    @Test
+    public void testCounters() throws Exception {
+        SctpManagementImpl management = new SctpManagementImpl("FlushConsolidationTest", 1, 1, 1);
+        management.setFlushConsolidationEnabled(true);
+        management.setFlushConsolidationMaxPendingWrites(4);
+
+        EmbeddedChannel channel = new EmbeddedChannel();
+        NettyFlushConsolidationHandler.addLast(channel.pipeline(), management);
+
+        // the flushes requested outside of a read cycle are postponed till the queued tasks are executed. The embedded
+        // channel runs its pending tasks on each write, so the messages are written first
+        for (int i = 0; i < 3; i++)
+            channel.write(Unpooled.wrappedBuffer(new byte[] { 1 }));
+        for (int i = 0; i < 3; i++)
+            channel.pipeline().flush();
+        assertOutbound(channel, 0);
+        assertEquals(3, management.getFlushRequestsCount());
+
+        channel.runPendingTasks();
+        assertOutbound(channel, 3);
+        assertEquals(3, management.getFlushRequestsCount());
+        assertEquals(2, management.getSavedFlushesCount());
+
+        // within a read cycle the flush is done at the read complete or is forced by the 4th consolidated request
+        channel.pipeline().fireChannelRead(Unpooled.EMPTY_BUFFER);
+        for (int i = 0; i < 3; i++)
+            channel.pipeline().writeAndFlush(Unpooled.wrappedBuffer(new byte[] { 1 }));
+        assertOutbound(channel, 0);
+        channel.pipeline().fireChannelReadComplete();
+        assertOutbound(channel, 3);
+        assertEquals(6, management.getFlushRequestsCount());
+        assertEquals(4, management.getSavedFlushesCount());
+
+        channel.pipeline().fireChannelRead(Unpooled.EMPTY_BUFFER);
+        for (int i = 0; i < 4; i++)
+            channel.pipeline().writeAndFlush(Unpooled.wrappedBuffer(new byte[] { 1 }));
+        assertOutbound(channel, 4);
+        channel.pipeline().fireChannelReadComplete();
+        assertOutbound(channel, 0);
+        assertEquals(10, management.getFlushRequestsCount());
+        assertEquals(7, management.getSavedFlushesCount());
+
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.sctp.netty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.SendFailedException;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class GracefulStopTest {
+    private static final Logger logger = LogManager.getLogger(GracefulStopTest.class);
+
+    private static final int SERVER_PORT = 2384;
+
+    private static final int MESSAGE_SIZE = 1000;
+    // more than the socket buffers can keep, so the messages stay in the outbound buffer of the client
+    private static final int MESSAGES = 20000;
+
+    private AssociationPair pair = null;
+    private SctpManagementImpl management = null;
+    private Association clientAssociation = null;
+    private BlockingListener serverListener = null;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + GracefulStopTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + GracefulStopTest.class.getName());
+    }
+
+    public void setUp(int stopDrainTimeout) throws Exception {
+        // the client port is not fixed, so the client side close does not leave it in TIME_WAIT for the next test
+        this.pair = new AssociationPair("GracefulStopTest", SERVER_PORT, 0);
+        this.management = this.pair.getManagement();
+        this.management.setStopDrainTimeout(stopDrainTimeout);
+        // the reading of the server is suspended while its listener is blocked
+        this.management.setInboundDispatchThreads(1);
+        this.management.setInboundWatermarks(100, 1000);
+
+        this.serverListener = new BlockingListener();
+        this.pair.connect(this.serverListener, new BlockingListener());
+        this.clientAssociation = this.pair.getClientAssociation();
+
+        for (int i = 0; i < MESSAGES; i++)
+            this.clientAssociation.send(payload());
+    }
+
+    public void tearDown() throws Exception {
+        this.serverListener.release();
+        this.pair.close();
+    }
+
+    @Test
+    public void testDrainOnStopTcp() throws Exception {
+        this.setUp(10000);
+
+        // waiting till the peer suspends the reading, so the messages are kept by the client
+        for (int i = 0; i < 20 && this.management.getInboundReadSuspendedCount() == 0; i++)
+            Thread.sleep(500);
+        this.management.stopAssociation(AssociationPair.CLIENT_ASSOCIATION);
+
+        try {
+            this.clientAssociation.send(payload());
+            fail("Send must be rejected after the stop");
+        } catch (SendFailedException e) {
+        }
+
+        Thread.sleep(1000);
+        assertTrue(this.clientAssociation.isUp());
+        this.serverListener.release();
+
+        for (int i = 0; i < 40 && this.serverListener.getMessages() < MESSAGES; i++)
+            Thread.sleep(500);
+        assertEquals(MESSAGES, this.serverListener.getMessages());
+
+        for (int i = 0; i < 20 && this.clientAssociation.isUp(); i++)
+            Thread.sleep(250);
+        assertFalse(this.clientAssociation.isUp());
+        long drainedMessages = this.management.getDrainedOnStopMessagesCount();
+        long drainedBytes = this.management.getDrainedOnStopBytesCount();
+        assertTrue(drainedMessages > 0);
+        // the first drained message may be written partially before the stop
+        assertTrue(drainedBytes > (drainedMessages - 1) * MESSAGE_SIZE && drainedBytes <= drainedMessages * MESSAGE_SIZE);
+        assertEquals(0, this.management.getDroppedOnStopMessagesCount());
+        assertEquals(0, this.management.getDroppedOnStopBytesCount());
+
+        this.tearDown();
+    }
+
+    @Test
+    public void testDropOnDrainTimeoutTcp() throws Exception {
+        this.setUp(500);
+
+        for (int i = 0; i < 20 && this.management.getInboundReadSuspendedCount() == 0; i++)
+            Thread.sleep(500);
+        this.management.stopAssociation(AssociationPair.CLIENT_ASSOCIATION);
+
+        // the peer does not read, so the drain timeout expires
+        for (int i = 0; i < 20 && this.clientAssociation.isUp(); i++)
+            Thread.sleep(250);
+        assertFalse(this.clientAssociation.isUp());
+        long droppedMessages = this.management.getDroppedOnStopMessagesCount();
+        long droppedBytes = this.management.getDroppedOnStopBytesCount();
+        assertTrue(droppedMessages > 0);
+        // the first dropped message may be written partially
+        assertTrue(droppedBytes > (droppedMessages - 1) * MESSAGE_SIZE && droppedBytes <= droppedMessages * MESSAGE_SIZE);
+        assertTrue(this.serverListener.getMessages() < MESSAGES);
+
+        this.tearDown();
+    }
+
+    private static PayloadData payload() {
+        return AssociationPair.payload(MESSAGE_SIZE, 0);
+    }
+
+    private class BlockingListener implements AssociationListener {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicLong messages = new AtomicLong(0);
+
+        public void release() {
+            latch.countDown();
+        }
+
+        public long getMessages() {
+            return messages.get();
+        }
+
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+            logger.info(association.getName() + " onCommunicationShutdown");
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+            }
+            messages.incrementAndGet();
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
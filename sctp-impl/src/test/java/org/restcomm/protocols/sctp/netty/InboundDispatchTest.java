@@ -0,0 +1,153 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class InboundDispatchTest {
+    private static final Logger logger = LogManager.getLogger(InboundDispatchTest.class);
+
+    private static final int SERVER_PORT = 2402;
+    private static final int CLIENT_PORT = 2403;
+
+    private static final int MESSAGE_SIZE = 64;
+    private static final int MESSAGES = 500;
+
+    private SctpManagementImpl management = null;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + InboundDispatchTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + InboundDispatchTest.class.getName());
+    }
+
+    @Test
+    public void testReplaceDispatcherTcp() throws Exception {
+        AssociationPair pair = new AssociationPair("InboundDispatchTest", SERVER_PORT, CLIENT_PORT);
+        this.management = pair.getManagement();
+        this.management.setInboundDispatchThreads(2);
+
+        SequenceListener serverListener = new SequenceListener();
+        pair.connect(serverListener, new SequenceListener());
+        Association clientAssociation = pair.getClientAssociation();
+
+        // the dispatcher is replaced while the slow listener has payloads queued in the old one
+        int sequence = 0;
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < MESSAGES; i++)
+                clientAssociation.send(payload(sequence++));
+            Thread.sleep(50);
+            this.management.setInboundDispatchThreads(round + 1);
+        }
+
+        try {
+            this.management.setInboundDispatchThreads(0);
+            fail("InboundDispatchThreads can not be set to 0 while the management is started");
+        } catch (Exception e) {
+        }
+
+        for (int i = 0; i < 40 && serverListener.getMessages() < sequence; i++)
+            Thread.sleep(500);
+        assertEquals(sequence, serverListener.getMessages());
+        assertEquals(0, serverListener.getOutOfOrder());
+
+        pair.close();
+    }
+
+    private static PayloadData payload(int sequence) {
+        return AssociationPair.payload(MESSAGE_SIZE, sequence);
+    }
+
+    private class SequenceListener implements AssociationListener {
+        private final AtomicInteger messages = new AtomicInteger(0);
+        private final AtomicInteger outOfOrder = new AtomicInteger(0);
+
+        public int getMessages() {
+            return messages.get();
+        }
+
+        public int getOutOfOrder() {
+            return outOfOrder.get();
+        }
+
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+            logger.info(association.getName() + " onCommunicationShutdown");
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            if (AssociationPair.sequence(payloadData) != messages.getAndIncrement())
+                outOfOrder.incrementAndGet();
+            // slow listener, so the payloads wait in the dispatch queue
+            try {
+                Thread.sleep(0, 100000);
+            } catch (InterruptedException e) {
+            }
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
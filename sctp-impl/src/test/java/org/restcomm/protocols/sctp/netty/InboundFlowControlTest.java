@@ -0,0 +1,179 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class InboundFlowControlTest {
+    private static final Logger logger = LogManager.getLogger(InboundFlowControlTest.class);
+
+    private static final int SERVER_PORT = 2380;
+    private static final int CLIENT_PORT = 2381;
+
+    private static final int MESSAGE_SIZE = 1000;
+    // more than the socket buffers can keep, so the sender is blocked while the reading is suspended
+    private static final int MESSAGES = 20000;
+    private static final int LOW_WATERMARK = 100;
+    private static final int HIGH_WATERMARK = 1000;
+
+    private SctpManagementImpl management = null;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + InboundFlowControlTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + InboundFlowControlTest.class.getName());
+    }
+
+    @Test
+    public void testWatermarks() throws Exception {
+        this.management = new SctpManagementImpl("InboundFlowControlTest", 1, 1, 1);
+        this.management.start();
+        this.management.removeAllResourses();
+
+        try {
+            this.management.setInboundWatermarks(10, 10);
+            fail("High watermark equal to low watermark must be rejected");
+        } catch (Exception e) {
+            assertEquals(Exception.class, e.getClass());
+            assertEquals("Inbound high watermark cannot be less than 0 and must be greater than low watermark",
+                    e.getMessage());
+        }
+        this.management.setInboundWatermarks(10, 0);
+        assertEquals(0, this.management.getInboundHighWatermark());
+        assertEquals(0, this.management.getInboundLowWatermark());
+
+        this.management.stop();
+    }
+
+    @Test
+    public void testReadSuspendedTcp() throws Exception {
+        AssociationPair pair = new AssociationPair("InboundFlowControlTest", SERVER_PORT, CLIENT_PORT);
+        this.management = pair.getManagement();
+        this.management.setInboundDispatchThreads(1);
+        this.management.setInboundWatermarks(LOW_WATERMARK, HIGH_WATERMARK);
+
+        // the server association uses the M3UA framing, so the count of waiting payloads is the count of messages
+        BlockingListener serverListener = new BlockingListener();
+        pair.connect(serverListener, new BlockingListener());
+        Association clientAssociation = pair.getClientAssociation();
+
+        for (int i = 0; i < MESSAGES; i++)
+            clientAssociation.send(payload());
+
+        for (int i = 0; i < 20 && this.management.getInboundReadSuspendedCount() == 0; i++)
+            Thread.sleep(500);
+        assertEquals(1, this.management.getInboundReadSuspendedCount());
+
+        // the reading is suspended, so the dispatch queue does not grow much above the high watermark
+        Thread.sleep(1000);
+        int queueDepth = this.management.getInboundDispatchQueueDepth();
+        logger.info("Inbound dispatch queue depth while suspended : " + queueDepth);
+        assertTrue(queueDepth < MESSAGES / 2);
+
+        serverListener.release();
+        for (int i = 0; i < 40 && serverListener.getMessages() < MESSAGES; i++)
+            Thread.sleep(500);
+        assertEquals(MESSAGES, serverListener.getMessages());
+        assertEquals(0, this.management.getInboundDispatchQueueDepth());
+
+        pair.close();
+    }
+
+    private static PayloadData payload() {
+        return AssociationPair.payload(MESSAGE_SIZE, 0);
+    }
+
+    private class BlockingListener implements AssociationListener {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicLong messages = new AtomicLong(0);
+
+        public void release() {
+            latch.countDown();
+        }
+
+        public long getMessages() {
+            return messages.get();
+        }
+
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+            logger.info(association.getName() + " onCommunicationShutdown");
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+            }
+            messages.incrementAndGet();
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
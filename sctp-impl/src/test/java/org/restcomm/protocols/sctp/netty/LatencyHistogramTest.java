@@ -0,0 +1,213 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.LatencyHistogram;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class LatencyHistogramTest {
+    private static final Logger logger = LogManager.getLogger(LatencyHistogramTest.class);
+
+    private static final int SERVER_PORT = 2386;
+    private static final int CLIENT_PORT = 2387;
+
+    private static final int MESSAGE_SIZE = 100;
+    private static final int MESSAGES = 1000;
+
+    private SctpManagementImpl management = null;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + LatencyHistogramTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + LatencyHistogramTest.class.getName());
+    }
+
+    @Test
+    public void testPercentiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getP99());
+
+        // 1..10000 microseconds
+        for (long i = 1; i <= 10000; i++)
+            histogram.recordValue(i * 1000);
+
+        assertEquals(10000, histogram.getTotalCount());
+        assertEquals(10000000, histogram.getMaxValue());
+        assertWithin(5000000, histogram.getP50());
+        assertWithin(9900000, histogram.getP99());
+        assertWithin(9990000, histogram.getP999());
+        assertWithin(5000500, (long) histogram.getMean());
+        assertEquals(10000000, histogram.getValueAtPercentile(100));
+
+        // the values above the trackable range are counted in the highest bucket but the maximum is exact
+        histogram.recordValues(LatencyHistogram.HIGHEST_TRACKABLE_VALUE * 4, 100000);
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_VALUE * 4, histogram.getMaxValue());
+        assertWithin(LatencyHistogram.HIGHEST_TRACKABLE_VALUE, histogram.getP50());
+
+        histogram.recordValue(-1);
+        assertEquals(110001, histogram.getTotalCount());
+    }
+
+    @Test
+    public void testIntervalSnapshot() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValues(2000000, 10);
+
+        LatencyHistogram copy = histogram.snapshot(false);
+        assertEquals(10, copy.getTotalCount());
+        assertEquals(10, histogram.getTotalCount());
+
+        LatencyHistogram interval = histogram.snapshot(true);
+        assertEquals(10, interval.getTotalCount());
+        assertEquals(2000000, interval.getMaxValue());
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getMaxValue());
+
+        histogram.recordValue(3000000);
+        interval = histogram.snapshot(true);
+        assertEquals(1, interval.getTotalCount());
+        assertWithin(3000000, interval.getP50());
+        // the snapshot is not updated anymore
+        histogram.recordValue(3000000);
+        assertEquals(1, interval.getTotalCount());
+    }
+
+    @Test
+    public void testLatenciesTcp() throws Exception {
+        AssociationPair pair = new AssociationPair("LatencyHistogramTest", SERVER_PORT, CLIENT_PORT);
+        this.management = pair.getManagement();
+
+        assertNull(this.management.getSendLatencyHistogram());
+        this.management.setLatencyHistogramsEnabled(true);
+        this.management.setAssociationLatencyHistogramsEnabled(true);
+        assertNotNull(this.management.getSendLatencyHistogram());
+
+        CountingListener serverListener = new CountingListener();
+        pair.connect(serverListener, new CountingListener());
+        Association serverAssociation = pair.getServerAssociation();
+        Association clientAssociation = pair.getClientAssociation();
+
+        // half of the messages are sent via the send queue
+        for (int i = 0; i < MESSAGES / 2; i++)
+            clientAssociation.send(payload());
+        this.management.setSendQueueEnabled(true);
+        for (int i = 0; i < MESSAGES / 2; i++)
+            clientAssociation.send(payload());
+
+        for (int i = 0; i < 20 && serverListener.getMessages() < MESSAGES; i++)
+            Thread.sleep(500);
+        assertEquals(MESSAGES, serverListener.getMessages());
+
+        LatencyHistogram send = clientAssociation.getSendLatencyHistogram().snapshot(true);
+        LatencyHistogram receive = serverAssociation.getReceiveLatencyHistogram().snapshot(true);
+        logger.info("Send latency : " + send);
+        logger.info("Receive latency : " + receive);
+        assertEquals(MESSAGES, send.getTotalCount());
+        assertEquals(MESSAGES, receive.getTotalCount());
+        assertTrue(send.getMaxValue() > 0);
+        assertEquals(0, clientAssociation.getSendLatencyHistogram().getTotalCount());
+        assertEquals(MESSAGES, this.management.getSendLatencyHistogram().getTotalCount());
+        assertEquals(MESSAGES, this.management.getReceiveLatencyHistogram().getTotalCount());
+
+        this.management.setLatencyHistogramsEnabled(false);
+        this.management.setAssociationLatencyHistogramsEnabled(false);
+        assertNull(this.management.getReceiveLatencyHistogram());
+        assertNull(clientAssociation.getSendLatencyHistogram());
+        this.management.setSendQueueEnabled(false);
+
+        pair.close();
+    }
+
+    private static void assertWithin(long expected, long value) {
+        assertTrue("Expected " + expected + " but was " + value, Math.abs(value - expected) <= expected / 32 + 1024);
+    }
+
+    private static PayloadData payload() {
+        return AssociationPair.payload(MESSAGE_SIZE, 0);
+    }
+
+    private class CountingListener implements AssociationListener {
+        private final AtomicLong messages = new AtomicLong(0);
+
+        public long getMessages() {
+            return messages.get();
+        }
+
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+            logger.info(association.getName() + " onCommunicationShutdown");
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            messages.incrementAndGet();
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
@@ -29,8 +29,13 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -41,6 +46,7 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationDefinition;
 import org.restcomm.protocols.api.AssociationListener;
 import org.restcomm.protocols.api.IpChannelType;
 import org.restcomm.protocols.api.PayloadData;
@@ -225,8 +231,199 @@ public class ManagementTest {
 
         management.stop();
     }
+
+    @Test
+    public void testAddAssociations() throws Exception {
+        SctpManagementImpl management = new SctpManagementImpl("ManagementTest",1,1,1);
+        management.start();
+        management.removeAllResourses();
+
+        management.addServer(SERVER_NAME, SERVER_HOST, SERVER_PORT, IpChannelType.TCP, null);
+        management.addAssociation("localhost", 2905, "localhost", 2906, "ClientAssoc1", IpChannelType.TCP, null);
+
+        // the clash inside of the batch rejects the whole batch
+        List<AssociationDefinition> definitions = new ArrayList<AssociationDefinition>();
+        definitions.add(AssociationDefinition.client("localhost", 2907, "localhost", 2908, "ClientAssoc2", IpChannelType.TCP, null));
+        definitions.add(AssociationDefinition.server("localhost", 2910, SERVER_NAME, "ServerAssoc1", IpChannelType.TCP));
+        definitions.add(AssociationDefinition.client("localhost", 2909, "localhost", 2908, "ClientAssoc3", IpChannelType.TCP, null));
+        try {
+            management.addAssociations(definitions);
+            fail("Expected Exception");
+        } catch (Exception e) {
+            assertEquals("Already has association=ClientAssoc2 with same peer address=localhost and port=2908", e.getMessage());
+        }
+        assertEquals(1, management.getAssociations().size());
+
+        // the clash with the existing association
+        definitions.remove(2);
+        definitions.add(AssociationDefinition.client("localhost", 2905, "localhost", 2912, "ClientAssoc3", IpChannelType.TCP, null));
+        try {
+            management.addAssociations(definitions);
+            fail("Expected Exception");
+        } catch (Exception e) {
+            assertEquals("Already has association=ClientAssoc1 with same host address=localhost and port=2905", e.getMessage());
+        }
+        assertEquals(1, management.getAssociations().size());
+
+        definitions.remove(2);
+        definitions.add(AssociationDefinition.server("localhost", 2910, SERVER_NAME, "ServerAssoc2", IpChannelType.TCP));
+        try {
+            management.addAssociations(definitions);
+            fail("Expected Exception");
+        } catch (Exception e) {
+            assertEquals("Already has association=ServerAssoc1 with same peer address=localhost and port=2910", e.getMessage());
+        }
+
+        definitions.remove(2);
+        List<Association> added = management.addAssociations(definitions);
+        assertEquals(2, added.size());
+        assertEquals("ClientAssoc2", added.get(0).getName());
+        assertEquals("ServerAssoc1", added.get(1).getName());
+        assertEquals(3, management.getAssociations().size());
+        assertEquals(1, management.getServers().iterator().next().getAssociations().size());
+
+        // the removed association does not clash anymore
+        management.removeAssociation("ClientAssoc2");
+        management.addAssociation("localhost", 2907, "localhost", 2908, "ClientAssoc2", IpChannelType.TCP, null);
+
+        // the modified association is indexed with the new address
+        management.modifyAssociation(null, null, null, 2914, "ClientAssoc2", null, null);
+        management.addAssociation("localhost", 2915, "localhost", 2908, "ClientAssoc4", IpChannelType.TCP, null);
+        try {
+            management.addAssociation("localhost", 2916, "localhost", 2914, "ClientAssoc5", IpChannelType.TCP, null);
+            fail("Expected Exception");
+        } catch (Exception e) {
+            assertEquals("Already has association=ClientAssoc2 with same peer address=localhost and port=2914", e.getMessage());
+        }
+
+        management.removeAllResourses();
+        management.stop();
+    }
     
 
+    @Test
+    public void testReconnectPolicy() throws Exception {
+        SctpManagementImpl management = new SctpManagementImpl("ManagementTest",1,1,1);
+        management.start();
+        management.removeAllResourses();
+
+        try {
+            management.setConnectDelayMultiplier(0.5);
+            fail("Expected Exception");
+        } catch (Exception e) {
+            assertEquals("ConnectDelayMultiplier cannot be less than 1", e.getMessage());
+        }
+        try {
+            management.setConnectDelayJitter(1.5);
+            fail("Expected Exception");
+        } catch (Exception e) {
+            assertEquals("ConnectDelayJitter must be from 0 to 1", e.getMessage());
+        }
+        try {
+            management.setTimerTickDuration(0);
+            fail("Expected Exception");
+        } catch (Exception e) {
+            assertEquals("TimerTickDuration cannot be less than 1", e.getMessage());
+        }
+
+        management.setConnectDelay(100);
+        management.setConnectDelayMultiplier(2);
+        management.setMaxConnectDelay(400);
+        management.setConnectDelayJitter(0.5);
+        management.setMaxConnectRate(2);
+
+        // nobody listens on the peer ports, the associations keep reconnecting faster than the rate permits
+        for (int i = 0; i < 4; i++) {
+            management.addAssociation("127.0.2." + (i + 1), 0, "127.0.0.1", 2930 + i, "ClientAssoc" + i, IpChannelType.TCP, null);
+            management.getAssociation("ClientAssoc" + i).setAssociationListener(new ClientAssociationListener());
+            management.startAssociation("ClientAssoc" + i);
+        }
+        Thread.sleep(3000);
+
+        assertTrue(management.getThrottledConnectAttemptsCount() > 0);
+        for (int i = 0; i < 4; i++) {
+            assertFalse(management.getAssociation("ClientAssoc" + i).isConnected());
+            management.stopAssociation("ClientAssoc" + i);
+        }
+
+        management.removeAllResourses();
+        management.stop();
+    }
+
+    @Test
+    public void testBulkStartStop() throws Exception {
+        SctpManagementImpl management = new SctpManagementImpl("ManagementTest",1,1,2);
+        management.start();
+        management.setConnectDelay(100);
+        management.removeAllResourses();
+
+        // every client uses its own pair of the loopback addresses, so the server listens on all of them
+        management.addServer(SERVER_NAME, "0.0.0.0", SERVER_PORT, IpChannelType.TCP, null);
+        List<String> serverAssocNames = new ArrayList<String>();
+        List<String> clientAssocNames = new ArrayList<String>();
+        for (int i = 0; i < 10; i++) {
+            String clientHost = "127.0.3." + (i + 1);
+            management.addServerAssociation(clientHost, 0, SERVER_NAME, "ServerAssoc" + i, IpChannelType.TCP)
+                    .setAssociationListener(new ServerAssociationListener());
+            management.addAssociation(clientHost, 0, "127.0.0." + (i + 1), SERVER_PORT, "ClientAssoc" + i, IpChannelType.TCP, null)
+                    .setAssociationListener(new ClientAssociationListener());
+            serverAssocNames.add("ServerAssoc" + i);
+            clientAssocNames.add("ClientAssoc" + i);
+        }
+
+        management.startServers(Arrays.asList(SERVER_NAME)).get(5, TimeUnit.SECONDS);
+        assertTrue(management.getServers().iterator().next().isStarted());
+
+        List<String> assocNames = new ArrayList<String>(serverAssocNames);
+        assocNames.addAll(clientAssocNames);
+        management.startAssociations(assocNames).get(5, TimeUnit.SECONDS);
+        for (String assocName : assocNames)
+            assertTrue(management.getAssociation(assocName).isStarted());
+
+        for (int i = 0; i < 20 && !allConnected(management, assocNames); i++)
+            Thread.sleep(250);
+        assertTrue(allConnected(management, assocNames));
+
+        // the unknown association fails the whole future, but the rest are stopped
+        List<String> stopNames = new ArrayList<String>(clientAssocNames);
+        stopNames.add("UnknownAssoc");
+        try {
+            management.stopAssociations(stopNames).get(5, TimeUnit.SECONDS);
+            fail("Expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertEquals("No Association found for name=UnknownAssoc", e.getCause().getMessage());
+        }
+        for (String assocName : clientAssocNames) {
+            assertFalse(management.getAssociation(assocName).isStarted());
+            assertFalse(management.getAssociation(assocName).isConnected());
+        }
+
+        // the server channels are closed once the future is completed, so the address can be bound again at once
+        management.stopAssociations(serverAssocNames).get(5, TimeUnit.SECONDS);
+        management.stopServers(Arrays.asList(SERVER_NAME)).get(5, TimeUnit.SECONDS);
+        assertFalse(management.getServers().iterator().next().isStarted());
+        management.startServers(Arrays.asList(SERVER_NAME)).get(5, TimeUnit.SECONDS);
+        assertTrue(management.getServers().iterator().next().isStarted());
+
+        // the rest is stopped by the management
+        management.stop();
+        for (String assocName : serverAssocNames)
+            assertFalse(management.getAssociation(assocName).isStarted());
+        assertFalse(management.getServers().iterator().next().isStarted());
+
+        management.start();
+        management.removeAllResourses();
+        management.stop();
+    }
+
+    private boolean allConnected(SctpManagementImpl management, List<String> assocNames) throws Exception {
+        for (String assocName : assocNames) {
+            if (!management.getAssociation(assocName).isConnected())
+                return false;
+        }
+        return true;
+    }
+
     @Test
     public void testStopAssociationSctp() throws Exception {
         
@@ -0,0 +1,120 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.restcomm.protocols.sctp.NettySctpReassemblyHandler;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+import com.sun.nio.sctp.MessageInfo;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.sctp.SctpMessage;
+import io.netty.util.CharsetUtil;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class SctpReassemblyTest {
+
+    private static SctpMessage part(int streamNumber, String data, boolean complete) {
+        MessageInfo messageInfo = MessageInfo.createOutgoing(null, streamNumber).payloadProtocolID(3).complete(complete);
+        return new SctpMessage(messageInfo, Unpooled.copiedBuffer(data, CharsetUtil.US_ASCII));
+    }
+
+    @Test
+    public void testReassembly() throws Exception {
+        SctpManagementImpl management = new SctpManagementImpl("SctpReassemblyTest", 1, 1, 1);
+        EmbeddedChannel channel = new EmbeddedChannel(new NettySctpReassemblyHandler(management));
+
+        // parts of two streams are interleaved
+        assertFalse(channel.writeInbound(part(1, "Hello ", false)));
+        assertFalse(channel.writeInbound(part(2, "Other ", false)));
+        assertFalse(channel.writeInbound(part(1, "big ", false)));
+        assertTrue(channel.writeInbound(part(1, "world", true)));
+
+        SctpMessage message = channel.readInbound();
+        assertEquals(1, message.streamIdentifier());
+        assertEquals(3, message.protocolIdentifier());
+        assertTrue(message.isComplete());
+        assertEquals("Hello big world", message.content().toString(CharsetUtil.US_ASCII));
+        message.release();
+
+        assertTrue(channel.writeInbound(part(2, "stream", true)));
+        message = channel.readInbound();
+        assertEquals("Other stream", message.content().toString(CharsetUtil.US_ASCII));
+        message.release();
+
+        // not fragmented message is passed as it is
+        SctpMessage single = part(3, "single", true);
+        ByteBuf content = single.content();
+        assertTrue(channel.writeInbound(single));
+        message = channel.readInbound();
+        assertTrue(message.content() == content);
+        message.release();
+
+        assertEquals(2, management.getReassembledMessagesCount());
+        assertEquals(5, management.getReassemblyFragmentsCount());
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testMaxMessageSize() throws Exception {
+        SctpManagementImpl management = new SctpManagementImpl("SctpReassemblyTest", 1, 1, 1);
+        management.setMaxReassembledMessageSize(10);
+        EmbeddedChannel channel = new EmbeddedChannel(new NettySctpReassemblyHandler(management));
+
+        SctpMessage first = part(1, "123456", false);
+        SctpMessage second = part(1, "789012", false);
+        SctpMessage last = part(1, "345", true);
+        channel.writeInbound(first);
+        channel.writeInbound(second);
+        channel.writeInbound(last);
+        assertNull(channel.readInbound());
+        assertEquals(1, management.getReassemblyDroppedCount());
+        assertEquals(0, first.refCnt());
+        assertEquals(0, last.refCnt());
+
+        // the next message of the stream is reassembled again
+        channel.writeInbound(part(1, "abc", false));
+        channel.writeInbound(part(1, "def", true));
+        SctpMessage message = channel.readInbound();
+        assertEquals("abcdef", message.content().toString(CharsetUtil.US_ASCII));
+        message.release();
+
+        // the parts are released when the channel is closed
+        SctpMessage pending = part(2, "pending", false);
+        channel.writeInbound(pending);
+        assertFalse(channel.finish());
+        assertEquals(0, pending.refCnt());
+    }
+}
@@ -23,6 +23,7 @@
 
 package org.restcomm.protocols.sctp.netty;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
@@ -33,17 +34,20 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.config.Configurator;
 import org.apache.logging.log4j.core.config.DefaultConfiguration;
 import org.junit.AfterClass;
+import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.restcomm.protocols.api.Association;
 import org.restcomm.protocols.api.AssociationListener;
 import org.restcomm.protocols.api.IpChannelType;
 import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.TransportType;
 import org.restcomm.protocols.sctp.SctpManagementImpl;
 
 import com.sun.nio.sctp.SctpChannel;
 
 import io.netty.buffer.Unpooled;
+import io.netty.channel.epoll.Epoll;
 
 /**
  * @author amit bhayani
@@ -101,7 +105,7 @@ public class SctpTransferTest {
 		logger.info("Stopping " + SctpTransferTest.class.getName());
 	}
 
-	public void setUp(IpChannelType ipChannelType) throws Exception {
+	public void setUp(IpChannelType ipChannelType, TransportType transportType) throws Exception {
 	    this.clientMaxInboundStreams = 0;
 		this.serverMaxOutboundStreams = 0;
 		
@@ -116,6 +120,7 @@ public class SctpTransferTest {
 
 		this.management = new SctpManagementImpl("netty-server-management",1,1,1);
 //		this.management.setSingleThread(true);
+		this.management.setTransportType(transportType);
 		this.management.start();
         this.management.setConnectDelay(10000);// Try connecting every 10 secs
 		this.management.removeAllResourses();
@@ -155,9 +160,23 @@ public class SctpTransferTest {
         this.testDataTransferByProtocol(IpChannelType.TCP);
     }
 
+    /**
+     * The same as testDataTransferTcp over the native epoll transport, skipped if it is not available
+     */
+    @Test
+    public void testDataTransferTcpEpoll() throws Exception {
+        Assume.assumeTrue(Epoll.isAvailable());
+        this.testDataTransferByProtocol(IpChannelType.TCP, TransportType.EPOLL);
+    }
+
 	private void testDataTransferByProtocol(IpChannelType ipChannelType) throws Exception {
+		this.testDataTransferByProtocol(ipChannelType, TransportType.NIO);
+	}
+
+	private void testDataTransferByProtocol(IpChannelType ipChannelType, TransportType transportType) throws Exception {
 
-		this.setUp(ipChannelType);
+		this.setUp(ipChannelType, transportType);
+		assertEquals(transportType == TransportType.EPOLL, this.management.isNativeTransport());
 
         this.management.startServer(SERVER_NAME);
 
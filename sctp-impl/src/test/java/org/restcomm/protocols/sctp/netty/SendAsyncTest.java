@@ -0,0 +1,193 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.IpChannelType;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.SendFailedException;
+
+import io.netty.util.concurrent.Future;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class SendAsyncTest {
+    private static final Logger logger = LogManager.getLogger(SendAsyncTest.class);
+
+    private static final int SERVER_PORT = 2410;
+    private static final int CLIENT_PORT = 2411;
+
+    private static final int MESSAGE_SIZE = 64;
+    private static final int MESSAGES = 1000;
+    // never valid, the count of streams is at most 65535
+    private static final int INVALID_STREAM = 65535;
+
+    private AssociationPair pair;
+    private Association clientAssociation;
+    private CountingListener serverListener;
+    private CountingListener clientListener;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + SendAsyncTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + SendAsyncTest.class.getName());
+    }
+
+    public void setUp(IpChannelType ipChannelType) throws Exception {
+        this.pair = new AssociationPair("SendAsyncTest", ipChannelType, SERVER_PORT, CLIENT_PORT);
+        this.serverListener = new CountingListener();
+        this.clientListener = new CountingListener();
+        this.pair.connect(this.serverListener, this.clientListener);
+        this.clientAssociation = this.pair.getClientAssociation();
+    }
+
+    @Test
+    public void testSendAsyncTcp() throws Exception {
+        this.setUp(IpChannelType.TCP);
+
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (int i = 0; i < MESSAGES; i++)
+            futures.add(this.clientAssociation.sendAsync(payload(3)));
+
+        // the futures are completed once the data is written to the socket
+        for (Future<Void> future : futures) {
+            assertTrue(future.await(5, TimeUnit.SECONDS));
+            assertTrue(future.isSuccess());
+        }
+        // the completion is counted by the listener of the promise, which is notified after the waiters are woken up
+        for (int i = 0; i < 20 && this.clientAssociation.getAsyncSendCompletionsValue() < MESSAGES; i++)
+            Thread.sleep(50);
+        assertEquals(MESSAGES, this.clientAssociation.getAsyncSendCompletionsValue());
+        assertTrue(this.clientAssociation.getAsyncSendCompletionTimeValue() > 0);
+        assertEquals(MESSAGES, this.clientAssociation.getPacketsSentValue());
+
+        for (int i = 0; i < 20 && this.serverListener.getMessages() < MESSAGES; i++)
+            Thread.sleep(500);
+        assertEquals(MESSAGES, this.serverListener.getMessages());
+
+        this.pair.stopAssociations();
+
+        // the association is down, the payload stays owned by the caller
+        PayloadData payloadData = payload(3);
+        Future<Void> future = this.clientAssociation.sendAsync(payloadData);
+        assertTrue(future.isDone());
+        assertFalse(future.isSuccess());
+        assertTrue(future.cause() instanceof SendFailedException);
+        assertEquals(1, payloadData.getByteBuf().refCnt());
+        payloadData.releaseBuffer();
+        assertEquals(MESSAGES, this.clientAssociation.getAsyncSendCompletionsValue());
+
+        this.pair.close();
+    }
+
+    @Test
+    public void testInvalidStreamSctp() throws Exception {
+        Assume.assumeTrue(SctpTransferTest.checkSctpEnabled());
+        this.setUp(IpChannelType.SCTP);
+
+        // the payload is dropped and released, the listener is notified
+        PayloadData payloadData = payload(INVALID_STREAM);
+        Future<Void> future = this.clientAssociation.sendAsync(payloadData);
+        assertTrue(future.isDone());
+        assertFalse(future.isSuccess());
+        assertTrue(future.cause() instanceof SendFailedException);
+        assertEquals(0, payloadData.getByteBuf().refCnt());
+        assertEquals(1, this.clientListener.getInvalidStreams());
+        assertEquals(0, this.clientAssociation.getPacketsSentValue());
+
+        this.pair.close();
+    }
+
+    private static PayloadData payload(int streamNumber) {
+        return AssociationPair.payload(MESSAGE_SIZE, 0, streamNumber);
+    }
+
+    private class CountingListener implements AssociationListener {
+        private final AtomicInteger messages = new AtomicInteger(0);
+        private final AtomicInteger invalidStreams = new AtomicInteger(0);
+
+        public int getMessages() {
+            return messages.get();
+        }
+
+        public int getInvalidStreams() {
+            return invalidStreams.get();
+        }
+
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+            logger.info(association.getName() + " onCommunicationShutdown");
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            messages.incrementAndGet();
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+            invalidStreams.incrementAndGet();
+        }
+    }
+}
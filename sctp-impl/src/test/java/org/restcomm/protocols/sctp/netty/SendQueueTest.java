@@ -0,0 +1,226 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.sctp.NettySctpChannelInboundHandlerAdapter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.local.LocalChannel;
+import io.netty.util.concurrent.Future;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class SendQueueTest {
+    private static final Logger logger = LogManager.getLogger(SendQueueTest.class);
+
+    private static final int SERVER_PORT = 2400;
+    private static final int CLIENT_PORT = 2401;
+
+    private static final int MESSAGE_SIZE = 64;
+    private static final int MESSAGES = 5000;
+    private static final int BATCH_SIZE = 10;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + SendQueueTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + SendQueueTest.class.getName());
+    }
+
+    @Test
+    public void testQueuedSendOrderTcp() throws Exception {
+        AssociationPair pair = new AssociationPair("SendQueueTest", SERVER_PORT, CLIENT_PORT);
+        pair.getManagement().setSendQueueEnabled(true);
+
+        SequenceListener serverListener = new SequenceListener();
+        pair.connect(serverListener, new SequenceListener());
+        Association clientAssociation = pair.getClientAssociation();
+
+        // single sends, batches and writes are queued in the order of the calls
+        List<ByteBuf> sent = new ArrayList<ByteBuf>();
+        int sequence = 0;
+        while (sequence < MESSAGES) {
+            if (sequence % 3 == 0) {
+                List<PayloadData> batch = new ArrayList<PayloadData>();
+                for (int i = 0; i < BATCH_SIZE; i++)
+                    batch.add(payload(sequence++, sent));
+                clientAssociation.send(batch);
+            } else if (sequence % 3 == 1) {
+                clientAssociation.write(payload(sequence++, sent));
+            } else {
+                clientAssociation.send(payload(sequence++, sent));
+            }
+        }
+
+        for (int i = 0; i < 20 && serverListener.getMessages() < sequence; i++)
+            Thread.sleep(500);
+        assertEquals(sequence, serverListener.getMessages());
+        assertEquals(0, serverListener.getOutOfOrder());
+
+        // the sent buffers are released once they are written
+        for (ByteBuf byteBuf : sent)
+            assertEquals(0, byteBuf.refCnt());
+
+        pair.getManagement().setSendQueueEnabled(false);
+        pair.close();
+    }
+
+    @Test
+    public void testQueuedSendAsyncOrderTcp() throws Exception {
+        AssociationPair pair = new AssociationPair("SendQueueTest", SERVER_PORT, CLIENT_PORT);
+        pair.getManagement().setSendQueueEnabled(true);
+
+        SequenceListener serverListener = new SequenceListener();
+        pair.connect(serverListener, new SequenceListener());
+        Association clientAssociation = pair.getClientAssociation();
+
+        // the asynchronous sends are queued together with the sends, so the messages keep the order of the calls
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (int sequence = 0; sequence < MESSAGES; sequence++) {
+            if (sequence % 2 == 0)
+                futures.add(clientAssociation.sendAsync(AssociationPair.payload(MESSAGE_SIZE, sequence)));
+            else
+                clientAssociation.send(AssociationPair.payload(MESSAGE_SIZE, sequence));
+        }
+
+        for (Future<Void> future : futures) {
+            assertTrue(future.await(5, TimeUnit.SECONDS));
+            assertTrue(future.isSuccess());
+        }
+        for (int i = 0; i < 20 && serverListener.getMessages() < MESSAGES; i++)
+            Thread.sleep(500);
+        assertEquals(MESSAGES, serverListener.getMessages());
+        assertEquals(0, serverListener.getOutOfOrder());
+
+        // the completion is counted by the listener of the promise, which is notified after the waiters are woken up
+        for (int i = 0; i < 20 && clientAssociation.getAsyncSendCompletionsValue() < futures.size(); i++)
+            Thread.sleep(50);
+        assertEquals(futures.size(), clientAssociation.getAsyncSendCompletionsValue());
+
+        pair.getManagement().setSendQueueEnabled(false);
+        pair.close();
+    }
+
+    @Test
+    public void testReleaseWhenEventLoopIsShutDown() throws Exception {
+        DefaultEventLoopGroup group = new DefaultEventLoopGroup(1);
+        LocalChannel channel = new LocalChannel();
+        group.register(channel).sync();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+
+        QueueHandler handler = new QueueHandler(channel);
+        ByteBuf first = Unpooled.buffer(1);
+        ByteBuf second = Unpooled.buffer(1);
+        handler.send(first);
+        handler.send(second);
+        assertEquals(0, first.refCnt());
+        assertEquals(0, second.refCnt());
+    }
+
+    private static PayloadData payload(int sequence, List<ByteBuf> sent) {
+        PayloadData payloadData = AssociationPair.payload(MESSAGE_SIZE, sequence);
+        sent.add(payloadData.getByteBuf());
+        return payloadData;
+    }
+
+    private static class QueueHandler extends NettySctpChannelInboundHandlerAdapter {
+        QueueHandler(Channel channel) {
+            this.channel = channel;
+        }
+
+        void send(Object message) {
+            this.enqueue(message);
+        }
+    }
+
+    private class SequenceListener implements AssociationListener {
+        private final AtomicInteger messages = new AtomicInteger(0);
+        private final AtomicInteger outOfOrder = new AtomicInteger(0);
+
+        public int getMessages() {
+            return messages.get();
+        }
+
+        public int getOutOfOrder() {
+            return outOfOrder.get();
+        }
+
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+            logger.info(association.getName() + " onCommunicationShutdown");
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            if (AssociationPair.sequence(payloadData) != messages.getAndIncrement())
+                outOfOrder.incrementAndGet();
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
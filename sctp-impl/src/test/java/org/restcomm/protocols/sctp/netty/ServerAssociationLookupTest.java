@@ -0,0 +1,175 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.protocols.api.Association;
+import org.restcomm.protocols.api.AssociationListener;
+import org.restcomm.protocols.api.IpChannelType;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.api.Server;
+import org.restcomm.protocols.sctp.SctpManagementImpl;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class ServerAssociationLookupTest {
+    private static final Logger logger = LogManager.getLogger(ServerAssociationLookupTest.class);
+
+    private static final String SERVER_NAME = "testserver";
+    // the server listens on all the loopback addresses, every client association uses its own one as the peer
+    private static final String SERVER_HOST = "0.0.0.0";
+    private static final int SERVER_PORT = 2414;
+    private static final String CLIENT_HOST = "127.0.0.1";
+    private static final int CLIENT_PORT1 = 2415;
+    private static final int CLIENT_PORT2 = 2416;
+    private static final int CLIENT_PORT3 = 2417;
+
+    private SctpManagementImpl management = null;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        Configurator.initialize(new DefaultConfiguration());
+        Configurator.setRootLevel(Level.INFO);
+        logger.info("Starting " + ServerAssociationLookupTest.class.getName());
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        logger.info("Stopping " + ServerAssociationLookupTest.class.getName());
+    }
+
+    @Test
+    public void testLookupOnAcceptTcp() throws Exception {
+        this.management = new SctpManagementImpl("ServerAssociationLookupTest", 1, 1, 1);
+        this.management.start();
+        this.management.setConnectDelay(1000);
+        this.management.removeAllResourses();
+
+        Server server = this.management.addServer(SERVER_NAME, SERVER_HOST, SERVER_PORT, IpChannelType.TCP, false, 0,
+                null);
+        // two associations for the exact peer ports and one for any port of the peer address
+        Association serverAssociation1 = this.management.addServerAssociation(CLIENT_HOST, CLIENT_PORT1, SERVER_NAME,
+                "serverAssociation1", IpChannelType.TCP);
+        Association serverAssociation2 = this.management.addServerAssociation(CLIENT_HOST, CLIENT_PORT2, SERVER_NAME,
+                "serverAssociation2", IpChannelType.TCP);
+        Association serverAssociationAny = this.management.addServerAssociation(CLIENT_HOST, 0, SERVER_NAME,
+                "serverAssociationAny", IpChannelType.TCP);
+
+        try {
+            this.management.addServerAssociation(CLIENT_HOST, CLIENT_PORT1, SERVER_NAME, "serverAssociation4",
+                    IpChannelType.TCP);
+            fail("Association with the same peer address and port must be rejected");
+        } catch (Exception e) {
+            assertEquals(Exception.class, e.getClass());
+            assertTrue(e.getMessage().startsWith("Already has association=serverAssociation1 with same peer address"));
+        }
+
+        Association clientAssociation1 = this.management.addAssociation(CLIENT_HOST, CLIENT_PORT1, "127.0.0.1",
+                SERVER_PORT, "clientAssociation1", IpChannelType.TCP, null);
+        Association clientAssociation2 = this.management.addAssociation(CLIENT_HOST, CLIENT_PORT2, "127.0.0.2",
+                SERVER_PORT, "clientAssociation2", IpChannelType.TCP, null);
+        Association clientAssociation3 = this.management.addAssociation(CLIENT_HOST, CLIENT_PORT3, "127.0.0.3",
+                SERVER_PORT, "clientAssociation3", IpChannelType.TCP, null);
+
+        Association[] associations = new Association[] { serverAssociation1, serverAssociation2, serverAssociationAny,
+                clientAssociation1, clientAssociation2, clientAssociation3 };
+        for (Association association : associations)
+            association.setAssociationListener(new EmptyListener());
+
+        this.management.startServer(SERVER_NAME);
+        for (Association association : associations)
+            this.management.startAssociation(association.getName());
+
+        // the exact port associations are up only if the lookup prefers them to the wildcard one, and the wildcard one
+        // only if the third client falls back to it
+        for (int i = 0; i < 20 && !allUp(associations); i++)
+            Thread.sleep(500);
+        assertTrue(allUp(associations));
+        assertEquals(3, server.getAcceptedConnectionsCount());
+        assertEquals(0, server.getRejectedConnectionsCount());
+
+        // closing from the server side first, so the fixed client ports are not left in TIME_WAIT for the next run
+        this.management.stopAssociation("serverAssociation1");
+        this.management.stopAssociation("serverAssociation2");
+        this.management.stopAssociation("serverAssociationAny");
+        Thread.sleep(500);
+        this.management.stopAssociation("clientAssociation1");
+        this.management.stopAssociation("clientAssociation2");
+        this.management.stopAssociation("clientAssociation3");
+        this.management.stopServer(SERVER_NAME);
+        Thread.sleep(1000);
+
+        this.management.removeAllResourses();
+        this.management.stop();
+    }
+
+    private static boolean allUp(Association[] associations) {
+        for (Association association : associations) {
+            if (!association.isUp())
+                return false;
+        }
+        return true;
+    }
+
+    private class EmptyListener implements AssociationListener {
+        @Override
+        public void onCommunicationUp(Association association, int maxInboundStreams, int maxOutboundStreams) {
+            logger.info(association.getName() + " onCommunicationUp");
+        }
+
+        @Override
+        public void onCommunicationShutdown(Association association) {
+            logger.info(association.getName() + " onCommunicationShutdown");
+        }
+
+        @Override
+        public void onCommunicationLost(Association association) {
+        }
+
+        @Override
+        public void onCommunicationRestart(Association association) {
+        }
+
+        @Override
+        public void onPayload(Association association, PayloadData payloadData) {
+            payloadData.releaseBuffer();
+        }
+
+        @Override
+        public void inValidStreamId(PayloadData payloadData) {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.restcomm.protocols.api.PayloadData;
+import org.restcomm.protocols.sctp.HashStreamSelector;
+import org.restcomm.protocols.sctp.LeastQueuedStreamSelector;
+import org.restcomm.protocols.sctp.RoundRobinStreamSelector;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class StreamSelectorTest {
+
+    private static PayloadData payload(int key) {
+        return new PayloadData(0, null, true, false, 3, key);
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        RoundRobinStreamSelector selector = new RoundRobinStreamSelector(1);
+        for (int i = 0; i < 8; i++)
+            assertEquals(1 + i % 3, selector.selectStream(payload(0), 4));
+
+        // only stream 0 is available
+        assertEquals(0, selector.selectStream(payload(0), 1));
+    }
+
+    @Test
+    public void testHash() throws Exception {
+        HashStreamSelector selector = new HashStreamSelector(PayloadData::getStreamNumber, 1);
+        for (int key = 0; key < 100; key++) {
+            int streamNumber = selector.selectStream(payload(key), 10);
+            assertTrue(streamNumber >= 1 && streamNumber < 10);
+            assertEquals(streamNumber, selector.selectStream(payload(key), 10));
+        }
+    }
+
+    @Test
+    public void testLeastQueued() throws Exception {
+        LeastQueuedStreamSelector selector = new LeastQueuedStreamSelector();
+        int first = selector.selectStream(payload(0), 2);
+        selector.onMessageQueued(first);
+        selector.onMessageQueued(first);
+
+        int second = selector.selectStream(payload(0), 2);
+        assertEquals(1 - first, second);
+        selector.onMessageQueued(second);
+        assertEquals(1 - first, selector.selectStream(payload(0), 2));
+
+        selector.onMessageSent(first);
+        selector.onMessageSent(first);
+        assertEquals(first, selector.selectStream(payload(0), 2));
+        assertEquals(0, selector.getQueuedCount(first));
+        assertEquals(1, selector.getQueuedCount(second));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Mobius Software LTD , Copyright 2022-2023
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.sctp.netty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.restcomm.protocols.api.IpChannelType;
+import org.restcomm.protocols.sctp.AssociationImpl;
+import org.restcomm.protocols.sctp.M3uaTcpFraming;
+import org.restcomm.protocols.sctp.NettySctpChannelInboundHandlerAdapter;
+import org.restcomm.protocols.sctp.NettyTcpFramingDecoder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+
+/**
+ * 
+ * @author yulianoifa
+ *
+ */
+public class TcpFramingTest {
+
+    private static class CollectingHandler extends NettySctpChannelInboundHandlerAdapter {
+        private final List<ByteBuf> messages = new ArrayList<ByteBuf>();
+
+        CollectingHandler(AssociationImpl association) {
+            this.association = association;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            messages.add((ByteBuf) msg);
+        }
+    }
+
+    private static AssociationImpl association() throws Exception {
+        return new AssociationImpl("127.0.0.1", 2380, "127.0.0.1", 2381, "framing", IpChannelType.TCP, null);
+    }
+
+    @Test
+    public void testM3uaFraming() throws Exception {
+        AssociationImpl association = association();
+        association.setTcpFraming(new M3uaTcpFraming());
+        CollectingHandler handler = new CollectingHandler(association);
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyTcpFramingDecoder(handler), handler);
+
+        ByteBuf stream = Unpooled.buffer();
+        stream.writeBytes(AssociationPair.m3uaMessage(8, 0)).writeBytes(AssociationPair.m3uaMessage(12, 1))
+                .writeBytes(AssociationPair.m3uaMessage(16, 2));
+
+        // the messages are split and merged by reads in an arbitrary way
+        channel.writeInbound(stream.readRetainedSlice(5));
+        assertEquals(0, handler.messages.size());
+        channel.writeInbound(stream.readRetainedSlice(18));
+        assertEquals(2, handler.messages.size());
+        channel.writeInbound(stream.readRetainedSlice(stream.readableBytes()));
+        assertEquals(3, handler.messages.size());
+        stream.release();
+
+        int[] lengths = new int[] { 8, 12, 16 };
+        for (int i = 0; i < lengths.length; i++) {
+            ByteBuf message = handler.messages.get(i);
+            assertEquals(lengths[i], message.readableBytes());
+            assertEquals(lengths[i], message.getInt(message.readerIndex() + 4));
+            if (lengths[i] > 8)
+                assertEquals(i, message.getInt(message.readerIndex() + 8));
+            message.release();
+        }
+
+        channel.finish();
+    }
+
+    @Test
+    public void testNoFraming() throws Exception {
+        CollectingHandler handler = new CollectingHandler(association());
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyTcpFramingDecoder(handler), handler);
+
+        ByteBuf data = Unpooled.copiedBuffer(new byte[] { 1, 2, 3 });
+        channel.writeInbound(data);
+        assertEquals(1, handler.messages.size());
+        assertTrue(handler.messages.get(0) == data);
+        data.release();
+        channel.finish();
+    }
+
+    @Test
+    public void testCorruptedLength() throws Exception {
+        AssociationImpl association = association();
+        association.setTcpFraming(new M3uaTcpFraming());
+        CollectingHandler handler = new CollectingHandler(association);
+        EmbeddedChannel channel = new EmbeddedChannel(new NettyTcpFramingDecoder(handler), handler);
+
+        try {
+            channel.writeInbound(AssociationPair.m3uaMessage(4, 0).writerIndex(8));
+            fail("DecoderException is expected");
+        } catch (DecoderException e) {
+        }
+        channel.finish();
+    }
+}